@@ -0,0 +1,44 @@
+package br.com.bieniek.learnwiremock.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheStats {
+
+    private long hotHits;
+    private long offHeapHits;
+    private long misses;
+    private int hotEntries;
+    private int offHeapEntries;
+    private long offHeapUsedBytes;
+    private long offHeapCapacityBytes;
+    private long offHeapEvictions;
+
+    public long getLookups() {
+        return hotHits + offHeapHits + misses;
+    }
+
+    /**
+     * Share of all lookups answered by the hot tier.
+     */
+    public double getHotHitRate() {
+        return ratio(hotHits, getLookups());
+    }
+
+    /**
+     * Share of the lookups that missed the hot tier and were answered by the off-heap tier.
+     */
+    public double getOffHeapHitRate() {
+        return ratio(offHeapHits, offHeapHits + misses);
+    }
+
+    public double getHitRate() {
+        return ratio(hotHits + offHeapHits, getLookups());
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.bieniek.learnwiremock.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Byte values kept outside the Java heap in a single direct buffer used as a ring.
+ *
+ * Values are appended one after the other and, once the end of the buffer is reached, writing starts
+ * over from the beginning and evicts the oldest values it overwrites, so eviction is FIFO and costs no
+ * compaction. Only the small per-entry index lives on the heap. Not thread-safe, the caller locks.
+ */
+class OffHeapStore {
+
+    private static final class Entry {
+
+        private final String key;
+        private final int offset;
+        private final int length;
+
+        private Entry(String key, int offset, int length) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final Map<String, Entry> index = new HashMap<>();
+    /**
+     * Every written entry, live or invalidated, oldest first, which is also the order of their offsets
+     * starting from the write position.
+     */
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private int writePosition;
+    private long usedBytes;
+    private long evictions;
+
+    OffHeapStore(int capacityBytes) {
+        this.buffer = ByteBuffer.allocateDirect(capacityBytes);
+    }
+
+    /**
+     * Values bigger than the whole buffer are not stored.
+     */
+    boolean put(String key, byte[] value) {
+        remove(key);
+        if (value.length > buffer.capacity()) {
+            return false;
+        }
+        if (writePosition + value.length > buffer.capacity()) {
+            while (!entries.isEmpty() && entries.peekFirst().offset >= writePosition) {
+                evictOldest();
+            }
+            writePosition = 0;
+        }
+        int end = writePosition + value.length;
+        while (!entries.isEmpty() && entries.peekFirst().offset >= writePosition && entries.peekFirst().offset < end) {
+            evictOldest();
+        }
+        ByteBuffer target = buffer.duplicate();
+        target.position(writePosition);
+        target.put(value);
+
+        Entry entry = new Entry(key, writePosition, value.length);
+        entries.addLast(entry);
+        index.put(key, entry);
+        usedBytes += value.length;
+        writePosition = end;
+        return true;
+    }
+
+    byte[] get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        byte[] value = new byte[entry.length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(entry.offset);
+        source.get(value);
+        return value;
+    }
+
+    boolean remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry != null) {
+            usedBytes -= entry.length;
+        }
+        return entry != null;
+    }
+
+    void removeIf(Predicate<String> keyFilter) {
+        index.values().removeIf(entry -> {
+            if (keyFilter.test(entry.key)) {
+                usedBytes -= entry.length;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    void clear() {
+        index.clear();
+        entries.clear();
+        writePosition = 0;
+        usedBytes = 0;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    private void evictOldest() {
+        Entry oldest = entries.pollFirst();
+        if (index.remove(oldest.key, oldest)) {
+            usedBytes -= oldest.length;
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package br.com.bieniek.learnwiremock.cache;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of movie lookups split in two tiers : a small LRU of live objects on the heap in front of
+ * a large off-heap tier holding the same entries as Smile bytes.
+ *
+ * Every entry is written to both tiers, so falling out of the hot tier only costs a deserialization
+ * on the next lookup. Both tiers are guarded by the same lock, an invalidation removes the key from
+ * both, and a value loaded while an invalidation happened is not cached. Every lookup returns a
+ * copy of the cached movies, so a caller modifying its result cannot change what the cache holds.
+ */
+@Slf4j
+public class TwoTierMovieCache {
+
+    public static final int DEFAULT_HOT_ENTRIES = 256;
+    public static final int DEFAULT_OFF_HEAP_BYTES = 64 * 1024 * 1024;
+
+    private static final String MOVIE_ID_KEY = "id:";
+    private static final String YEAR_KEY = "year:";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private final JavaType movieType = objectMapper.constructType(Movie.class);
+    private final JavaType movieListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Movie.class);
+
+    private final Map<String, Object> hotTier;
+    private final OffHeapStore offHeapTier;
+
+    private long generation;
+    private long hotHits;
+    private long offHeapHits;
+    private long misses;
+
+    public TwoTierMovieCache() {
+        this(DEFAULT_HOT_ENTRIES, DEFAULT_OFF_HEAP_BYTES);
+    }
+
+    public TwoTierMovieCache(int hotEntries, int offHeapBytes) {
+        this.hotTier = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > hotEntries;
+            }
+        };
+        this.offHeapTier = new OffHeapStore(offHeapBytes);
+    }
+
+    public Movie getMovie(Integer movieId, Supplier<Movie> loader) {
+        return copy(get(MOVIE_ID_KEY + movieId, movieType, loader));
+    }
+
+    public List<Movie> getMoviesByYear(Integer year, Supplier<List<Movie>> loader) {
+        List<Movie> movies = get(YEAR_KEY + year, movieListType, loader);
+        if (movies == null) {
+            return null;
+        }
+        List<Movie> copies = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            copies.add(copy(movie));
+        }
+        return copies;
+    }
+
+    public synchronized void invalidateMovie(Integer movieId) {
+        remove(MOVIE_ID_KEY + movieId);
+    }
+
+    public synchronized void invalidateYear(Integer year) {
+        remove(YEAR_KEY + year);
+    }
+
+    public synchronized void invalidateAllYears() {
+        generation++;
+        hotTier.keySet().removeIf(key -> key.startsWith(YEAR_KEY));
+        offHeapTier.removeIf(key -> key.startsWith(YEAR_KEY));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        hotTier.clear();
+        offHeapTier.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hotHits, offHeapHits, misses, hotTier.size(), offHeapTier.size(),
+                offHeapTier.usedBytes(), offHeapTier.capacity(), offHeapTier.evictions());
+    }
+
+    /**
+     * Only map lookups and the copy out of the off-heap tier happen under the lock. Smile parsing and
+     * the loader run outside it, and their result is only cached when no invalidation happened since.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, JavaType type, Supplier<T> loader) {
+        long loadGeneration;
+        byte[] offHeapBytes;
+        synchronized (this) {
+            Object hot = hotTier.get(key);
+            if (hot != null) {
+                hotHits++;
+                return (T) hot;
+            }
+            offHeapBytes = offHeapTier.get(key);
+            loadGeneration = generation;
+        }
+
+        if (offHeapBytes != null) {
+            T value = deserialize(offHeapBytes, type);
+            if (value != null) {
+                synchronized (this) {
+                    offHeapHits++;
+                    if (loadGeneration == generation) {
+                        hotTier.put(key, value);
+                    }
+                }
+                return value;
+            }
+        }
+
+        synchronized (this) {
+            misses++;
+        }
+        T value = loader.get();
+        if (value != null) {
+            byte[] bytes = serialize(value);
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    hotTier.put(key, value);
+                    if (bytes != null) {
+                        offHeapTier.put(key, bytes);
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * The fields of a movie are immutable, so a shallow copy is enough.
+     */
+    private static Movie copy(Movie movie) {
+        return movie == null ? null : new Movie(movie.getMovie_id(), movie.getName(), movie.getYear(),
+                movie.getCast(), movie.getRelease_date());
+    }
+
+    private void remove(String key) {
+        generation++;
+        hotTier.remove(key);
+        offHeapTier.remove(key);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            log.error("Movie could not be serialized for the off-heap cache {} ", ex.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T deserialize(byte[] bytes, JavaType type) {
+        try {
+            return objectMapper.readValue(bytes, type);
+        } catch (IOException ex) {
+            log.error("Movie could not be read back from the off-heap cache {} ", ex.getMessage());
+            return null;
+        }
+    }
+}
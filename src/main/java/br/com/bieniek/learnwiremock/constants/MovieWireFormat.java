@@ -0,0 +1,45 @@
+package br.com.bieniek.learnwiremock.constants;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.function.Consumer;
+
+/**
+ * Wire format asked from the movie service for {@code Movie} payloads.
+ *
+ * {@link #SMILE} still accepts JSON with a lower quality, so a service that only speaks JSON keeps
+ * working and its responses are decoded as before. The decoder is picked from the response
+ * {@code Content-Type}, request bodies are always sent as JSON.
+ */
+public enum MovieWireFormat {
+
+    JSON(null),
+    SMILE("application/x-jackson-smile, application/json;q=0.5");
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final String acceptHeader;
+    private final Consumer<HttpHeaders> acceptHeaders;
+
+    MovieWireFormat(String acceptHeader) {
+        this.acceptHeader = acceptHeader;
+        this.acceptHeaders = acceptHeader == null
+                ? headers -> { }
+                : headers -> headers.set(HttpHeaders.ACCEPT, acceptHeader);
+    }
+
+    /**
+     * {@code null} for {@link #JSON}, which sends no {@code Accept} header at all.
+     */
+    public String getAcceptHeader() {
+        return acceptHeader;
+    }
+
+    /**
+     * Shared by every request, so negotiating costs no header building per call.
+     */
+    public Consumer<HttpHeaders> acceptHeaders() {
+        return acceptHeaders;
+    }
+}
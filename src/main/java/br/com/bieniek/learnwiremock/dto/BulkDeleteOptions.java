@@ -0,0 +1,32 @@
+package br.com.bieniek.learnwiremock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of a bulk delete, built with {@link #builder()} or taken as is from {@link #defaults()}.
+ */
+@Getter
+@Builder
+public class BulkDeleteOptions {
+
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+    private static final BulkDeleteOptions DEFAULTS = BulkDeleteOptions.builder().build();
+
+    /**
+     * How many DELETE requests are in flight at the same time.
+     */
+    @Builder.Default
+    private final int concurrency = DEFAULT_CONCURRENCY;
+
+    /**
+     * Counts a 404 as {@code missing} instead of a failure, since the movie is gone either way.
+     */
+    @Builder.Default
+    private final boolean treatNotFoundAsSuccess = true;
+
+    public static BulkDeleteOptions defaults() {
+        return DEFAULTS;
+    }
+}
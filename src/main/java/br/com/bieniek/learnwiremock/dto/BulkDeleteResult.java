@@ -0,0 +1,92 @@
+package br.com.bieniek.learnwiremock.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk delete. Only failed keys are listed individually.
+ */
+@Data
+@AllArgsConstructor
+public class BulkDeleteResult {
+
+    @Data
+    @AllArgsConstructor
+    public static class Failure {
+
+        private String key;
+
+        /**
+         * The response status, or {@code 0} when no response was received.
+         */
+        private int status;
+        private String message;
+    }
+
+    /**
+     * How a single key of a bulk delete was settled.
+     */
+    @Data
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Outcome {
+
+        public enum Kind {
+            DELETED, MISSING, FAILED
+        }
+
+        private String key;
+        private Kind kind;
+
+        /**
+         * Only set when the key failed.
+         */
+        private Failure failure;
+
+        public static Outcome deleted(Object key) {
+            return new Outcome(String.valueOf(key), Kind.DELETED, null);
+        }
+
+        public static Outcome missing(Object key) {
+            return new Outcome(String.valueOf(key), Kind.MISSING, null);
+        }
+
+        public static Outcome failed(Object key, int status, String message) {
+            return new Outcome(String.valueOf(key), Kind.FAILED, new Failure(String.valueOf(key), status, message));
+        }
+
+        public boolean isFailed() {
+            return kind == Kind.FAILED;
+        }
+    }
+
+    private int deleted;
+    private int missing;
+    private int failed;
+    private List<Failure> failures;
+
+    public static BulkDeleteResult of(List<Outcome> outcomes) {
+        BulkDeleteResult result = new BulkDeleteResult(0, 0, 0, new ArrayList<>());
+        for (Outcome outcome : outcomes) {
+            switch (outcome.getKind()) {
+                case DELETED:
+                    result.deleted++;
+                    break;
+                case MISSING:
+                    result.missing++;
+                    break;
+                default:
+                    result.failed++;
+                    result.failures.add(outcome.getFailure());
+            }
+        }
+        return result;
+    }
+
+    public boolean isSuccessful() {
+        return failed == 0;
+    }
+}
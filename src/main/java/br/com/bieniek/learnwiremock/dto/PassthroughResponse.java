@@ -0,0 +1,62 @@
+package br.com.bieniek.learnwiremock.dto;
+
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Upstream response whose status and headers are already known while the body is still unread.
+ *
+ * The body is made of the pooled buffers the connection received. It must be consumed exactly once,
+ * through {@link #transferTo(WritableByteChannel)}, {@link #getBody()} or {@link #release()}, otherwise
+ * the buffers and the connection are never given back.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PassthroughResponse {
+
+    private final int rawStatusCode;
+    private final HttpHeaders headers;
+
+    /**
+     * Every emitted buffer has to be released with {@link DataBufferUtils#release(DataBuffer)}.
+     */
+    private final Flux<DataBuffer> body;
+
+    public boolean isSuccessful() {
+        return rawStatusCode >= 200 && rawStatusCode < 300;
+    }
+
+    /**
+     * Writes the body to the channel straight from the received buffers and releases them.
+     *
+     * @return the number of bytes written
+     */
+    public long transferTo(WritableByteChannel channel) {
+        try {
+            return DataBufferUtils.write(body, channel)
+                    .map(dataBuffer -> {
+                        long written = dataBuffer.readableByteCount();
+                        DataBufferUtils.release(dataBuffer);
+                        return written;
+                    })
+                    .reduce(0L, Long::sum)
+                    .block();
+        } catch (Exception ex) {
+            throw new MovieErrorResponse(ex);
+        }
+    }
+
+    /**
+     * Discards the body, for responses that are answered from the status and headers alone.
+     */
+    public void release() {
+        body.doOnNext(DataBufferUtils::release).then().block();
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.bieniek.learnwiremock.exception;
+
+public class DeadlineExceededException extends MovieErrorResponse {
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,230 @@
+package br.com.bieniek.learnwiremock.index;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.service.MovieChangeListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from actor name to the movies whose {@code cast} lists that actor.
+ *
+ * Actor names are interned into int ids and each one owns an {@link IntPostingList} of
+ * document ids, where a document is the slot a movie occupies in the index. An actor is dropped
+ * as soon as no indexed movie lists them anymore, and their id is reused. Lookups are case
+ * and whitespace insensitive, so "Chris HemsWorth" and " chris hemsworth" are the same actor.
+ */
+public class ActorIndex implements MovieChangeListener {
+
+    private static final int[] NO_ACTORS = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> actorIds = new HashMap<>();
+    private final List<String> actorNames = new ArrayList<>();
+    private final List<IntPostingList> postings = new ArrayList<>();
+    private final Deque<Integer> freeActorIds = new ArrayDeque<>();
+
+    private final Map<Long, Integer> docIdsByMovieId = new HashMap<>();
+    private final List<Movie> movies = new ArrayList<>();
+    private final List<int[]> actorsByDoc = new ArrayList<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+
+    public List<Movie> findMoviesByActor(String actor) {
+        String key = normalize(actor);
+        lock.readLock().lock();
+        try {
+            Integer actorId = key.isEmpty() ? null : actorIds.get(key);
+            if (actorId == null) {
+                return Collections.emptyList();
+            }
+            IntPostingList docIds = postings.get(actorId);
+            List<Movie> result = new ArrayList<>(docIds.size());
+            for (int i = 0; i < docIds.size(); i++) {
+                result.add(movies.get(docIds.get(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the movie or, when a movie with the same id is already indexed, replaces it.
+     * Movies without an id can't be tracked and are ignored.
+     */
+    public void index(Movie movie) {
+        if (movie == null || movie.getMovie_id() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByMovieId.get(movie.getMovie_id());
+            if (docId == null) {
+                docId = allocateDocId();
+                docIdsByMovieId.put(movie.getMovie_id(), docId);
+            } else {
+                unpost(docId);
+            }
+            int[] actors = intern(movie.getCast());
+            for (int actorId : actors) {
+                postings.get(actorId).add(docId);
+            }
+            movies.set(docId, movie);
+            actorsByDoc.set(docId, actors);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexAll(List<Movie> movies) {
+        if (movies != null) {
+            movies.forEach(this::index);
+        }
+    }
+
+    public void remove(Long movieId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByMovieId.remove(movieId);
+            if (docId != null) {
+                release(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeByName(String movieName) {
+        lock.writeLock().lock();
+        try {
+            docIdsByMovieId.values().removeIf(docId -> {
+                Movie movie = movies.get(docId);
+                if (movieName != null && movieName.equals(movie.getName())) {
+                    release(docId);
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int actorCount() {
+        lock.readLock().lock();
+        try {
+            return actorIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int movieCount() {
+        lock.readLock().lock();
+        try {
+            return docIdsByMovieId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onMovieAdded(Movie movie) {
+        index(movie);
+    }
+
+    @Override
+    public void onMovieUpdated(Movie previous, Movie current) {
+        index(current);
+    }
+
+    @Override
+    public void onMovieDeleted(Movie movie) {
+        remove(movie.getMovie_id());
+    }
+
+    static List<String> tokenize(String cast) {
+        if (cast == null) {
+            return Collections.emptyList();
+        }
+        Set<String> actors = new LinkedHashSet<>();
+        for (String actor : cast.split(",")) {
+            String key = normalize(actor);
+            if (!key.isEmpty()) {
+                actors.add(key);
+            }
+        }
+        return new ArrayList<>(actors);
+    }
+
+    private static String normalize(String actor) {
+        return actor == null ? "" : actor.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private int[] intern(String cast) {
+        List<String> actors = tokenize(cast);
+        if (actors.isEmpty()) {
+            return NO_ACTORS;
+        }
+        int[] ids = new int[actors.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Integer actorId = actorIds.get(actors.get(i));
+            ids[i] = actorId != null ? actorId : allocateActorId(actors.get(i));
+        }
+        return ids;
+    }
+
+    private int allocateActorId(String actor) {
+        Integer actorId = freeActorIds.poll();
+        if (actorId == null) {
+            actorId = postings.size();
+            postings.add(null);
+            actorNames.add(null);
+        }
+        postings.set(actorId, new IntPostingList());
+        actorNames.set(actorId, actor);
+        actorIds.put(actor, actorId);
+        return actorId;
+    }
+
+    private int allocateDocId() {
+        Integer docId = freeDocIds.poll();
+        if (docId != null) {
+            return docId;
+        }
+        movies.add(null);
+        actorsByDoc.add(NO_ACTORS);
+        return movies.size() - 1;
+    }
+
+    private void release(int docId) {
+        unpost(docId);
+        movies.set(docId, null);
+        actorsByDoc.set(docId, NO_ACTORS);
+        freeDocIds.push(docId);
+    }
+
+    private void unpost(int docId) {
+        for (int actorId : actorsByDoc.get(docId)) {
+            IntPostingList docIds = postings.get(actorId);
+            docIds.remove(docId);
+            if (docIds.isEmpty()) {
+                actorIds.remove(actorNames.get(actorId));
+                actorNames.set(actorId, null);
+                postings.set(actorId, null);
+                freeActorIds.push(actorId);
+            }
+        }
+    }
+}
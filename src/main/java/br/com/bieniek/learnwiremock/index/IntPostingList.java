@@ -0,0 +1,50 @@
+package br.com.bieniek.learnwiremock.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of document ids backed by a primitive {@code int[]}, so postings cost four bytes
+ * per entry instead of a boxed {@code Integer} each.
+ */
+class IntPostingList {
+
+    private int[] docIds = new int[4];
+    private int size;
+
+    boolean add(int docId) {
+        int position = Arrays.binarySearch(docIds, 0, size, docId);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == docIds.length) {
+            docIds = Arrays.copyOf(docIds, size * 2);
+        }
+        System.arraycopy(docIds, position, docIds, position + 1, size - position);
+        docIds[position] = docId;
+        size++;
+        return true;
+    }
+
+    boolean remove(int docId) {
+        int position = Arrays.binarySearch(docIds, 0, size, docId);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(docIds, position + 1, docIds, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    int get(int index) {
+        return docIds[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.bieniek.learnwiremock.recording;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One call read back from a traffic log. Bodies are the JSON sent and received, or the raw text
+ * for plain text and error responses. A status of {@code 0} means no response was received.
+ */
+@Getter
+@AllArgsConstructor
+public class RecordedCall {
+
+    private final String operation;
+    private final String argument;
+    private final long startMicros;
+    private final long durationMicros;
+    private final int status;
+    private final byte[] requestBody;
+    private final byte[] responseBody;
+
+    public boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+
+    public int getResponseSize() {
+        return responseBody.length;
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.bieniek.learnwiremock.recording;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads back a log written by {@link TrafficRecorder}, in the order the calls were written.
+ */
+public class TrafficLogReader {
+
+    private TrafficLogReader() {
+    }
+
+    /**
+     * A record cut short by a crash at the end of the log is ignored.
+     */
+    public static List<RecordedCall> read(Path log) throws IOException {
+        List<RecordedCall> calls = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log)))) {
+            if (in.readInt() != TrafficRecorder.MAGIC) {
+                throw new IOException(log + " is not a traffic log");
+            }
+            int version = in.readInt();
+            if (version != TrafficRecorder.VERSION) {
+                throw new IOException("Unsupported traffic log version " + version);
+            }
+            while (true) {
+                String operation;
+                try {
+                    operation = in.readUTF();
+                } catch (EOFException ex) {
+                    return calls;
+                }
+                try {
+                    calls.add(new RecordedCall(operation,
+                            in.readUTF(),
+                            in.readLong(),
+                            in.readInt(),
+                            in.readUnsignedShort(),
+                            readBody(in),
+                            readBody(in)));
+                } catch (EOFException ex) {
+                    return calls;
+                }
+            }
+        }
+    }
+
+    private static byte[] readBody(DataInputStream in) throws IOException {
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return body;
+    }
+}
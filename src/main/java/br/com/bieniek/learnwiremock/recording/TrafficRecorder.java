@@ -0,0 +1,223 @@
+package br.com.bieniek.learnwiremock.recording;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends the calls made by a {@link br.com.bieniek.learnwiremock.service.MoviesRestClient} to a
+ * compact binary log that {@link TrafficLogReader} reads back.
+ *
+ * Recording a call only puts it on a bounded queue. A single writer thread serializes the bodies
+ * and writes them through a buffer, so the calling thread never waits for the disk. When the queue
+ * is full the call is dropped and counted rather than slowing the client down. Bodies are
+ * serialized after the call returns, so movies passed to or returned from a recorded client should
+ * not be modified afterwards.
+ */
+@Slf4j
+public class TrafficRecorder implements Closeable {
+
+    static final int MAGIC = 0x4d565452;
+    static final int VERSION = 1;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] NO_BODY = new byte[0];
+
+    private static final class Entry {
+
+        private final String operation;
+        private final Object argument;
+        private final Object requestBody;
+        private final long startNanos;
+        private final long durationNanos;
+        private final int status;
+        private final Object responseBody;
+
+        private Entry(String operation, Object argument, Object requestBody, long startNanos, long durationNanos, int status, Object responseBody) {
+            this.operation = operation;
+            this.argument = argument;
+            this.requestBody = requestBody;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.status = status;
+            this.responseBody = responseBody;
+        }
+    }
+
+    private static final Entry END = new Entry(null, null, null, 0, 0, 0, null);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BlockingQueue<Entry> queue;
+    private final DataOutputStream out;
+    private final Thread writer;
+    private final long epochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final long epochNanos = System.nanoTime();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean closed;
+    private volatile boolean writerFailed;
+    /**
+     * Calls written to the buffer since the last flush, only used by the writer thread.
+     */
+    private long unflushed;
+
+    public TrafficRecorder(Path log) throws IOException {
+        this(log, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public TrafficRecorder(Path log, int queueCapacity) throws IOException {
+        boolean newLog = !Files.exists(log) || Files.size(log) == 0;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(log, StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE));
+        if (newLog) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+        this.writer = new Thread(this::writeLoop, "traffic-recorder");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @param startNanos   {@link System#nanoTime()} when the call started
+     * @param status       the response status, or {@code 0} when no response was received
+     * @param responseBody the decoded response, or the raw text of a plain text or error response
+     */
+    public void record(String operation, Object argument, Object requestBody, long startNanos, int status, Object responseBody) {
+        Entry entry = new Entry(operation, argument, requestBody, startNanos, System.nanoTime() - startNanos, status, responseBody);
+        if (closed || writerFailed || !queue.offer(entry)) {
+            dropped.increment();
+        } else if ((closed || writerFailed) && queue.remove(entry)) {
+            // raced with close() or a write failure, and nothing will take the entry off the queue anymore
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Calls flushed to the log. Calls lost with a failed flush are counted as dropped.
+     */
+    public long recorded() {
+        return recorded.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops recording, writes what is still queued and closes the log. The log is closed even when
+     * the writer already failed, and calls still queued at that point are counted as dropped.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!writerFailed) {
+                queue.put(END);
+            }
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            dropQueued();
+            out.close();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                Entry entry = queue.poll();
+                if (entry == null) {
+                    flush();
+                    entry = queue.take();
+                }
+                if (entry == END) {
+                    flush();
+                    return;
+                }
+                try {
+                    write(entry);
+                } catch (IOException ex) {
+                    dropped.increment();
+                    throw ex;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.error("Traffic log could not be written, recording stopped {} ", ex.getMessage());
+            writerFailed = true;
+            dropped.add(unflushed);
+            unflushed = 0;
+            dropQueued();
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flush();
+        recorded.add(unflushed);
+        unflushed = 0;
+    }
+
+    private void dropQueued() {
+        for (Entry entry = queue.poll(); entry != null; entry = queue.poll()) {
+            if (entry != END) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        byte[] requestBody;
+        byte[] responseBody;
+        try {
+            requestBody = toBytes(entry.requestBody);
+            responseBody = toBytes(entry.responseBody);
+        } catch (IOException ex) {
+            log.error("Recorded call to {} could not be serialized {} ", entry.operation, ex.getMessage());
+            dropped.increment();
+            return;
+        }
+        out.writeUTF(entry.operation);
+        out.writeUTF(entry.argument == null ? "" : entry.argument.toString());
+        out.writeLong(epochMicros + TimeUnit.NANOSECONDS.toMicros(entry.startNanos - epochNanos));
+        out.writeInt((int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(entry.durationNanos)));
+        out.writeShort(entry.status);
+        out.writeInt(requestBody.length);
+        out.write(requestBody);
+        out.writeInt(responseBody.length);
+        out.write(responseBody);
+        unflushed++;
+    }
+
+    private byte[] toBytes(Object body) throws IOException {
+        if (body == null) {
+            return NO_BODY;
+        }
+        if (body instanceof String) {
+            return ((String) body).getBytes(StandardCharsets.UTF_8);
+        }
+        return objectMapper.writeValueAsBytes(body);
+    }
+}
@@ -0,0 +1,205 @@
+package br.com.bieniek.learnwiremock.scheduling;
+
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.service.Deadline;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admits requests to the connection pool with weighted fair queuing between {@link RequestPriority} classes.
+ *
+ * The scheduler hands out as many permits as the pool has connections, so requests queue here, where
+ * their order can be chosen, instead of inside the pool. While permits are free every request goes
+ * straight through. Once they run out, each waiting request gets a virtual finish tag that grows by
+ * {@code 1 / weight} per request of its class, and a freed permit goes to the smallest tag. With the
+ * default weights interactive requests get eight permits for every batch one while both are waiting,
+ * and batch requests take all the capacity interactive traffic leaves unused.
+ */
+public class PriorityRequestScheduler {
+
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final RequestPriority priority;
+        private final double finishTag;
+        private final long sequence;
+        private final Condition granted;
+        private boolean admitted;
+
+        private Waiter(RequestPriority priority, double finishTag, long sequence, Condition granted) {
+            this.priority = priority;
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+            this.granted = granted;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byTag = Double.compare(finishTag, other.finishTag);
+            return byTag != 0 ? byTag : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class ClassStats {
+
+        private long requests;
+        private long queuedRequests;
+        private int waiting;
+        private long totalQueueNanos;
+        private long maxQueueNanos;
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+    private final Map<RequestPriority, Integer> weights;
+    private final RequestPriority defaultPriority;
+    private final Map<RequestPriority, Double> lastFinishTags = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, ClassStats> stats = new EnumMap<>(RequestPriority.class);
+
+    private int availablePermits;
+    private double virtualTime;
+    private long sequence;
+
+    public PriorityRequestScheduler(int permits) {
+        this(permits, RequestPriority.INTERACTIVE, defaultWeights());
+    }
+
+    /**
+     * @param permits         the size of the connection pool the requests go to
+     * @param defaultPriority the class of untagged requests
+     */
+    public PriorityRequestScheduler(int permits, RequestPriority defaultPriority, Map<RequestPriority, Integer> weights) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        this.availablePermits = permits;
+        this.defaultPriority = defaultPriority;
+        this.weights = new EnumMap<>(weights);
+        for (RequestPriority priority : RequestPriority.values()) {
+            this.weights.putIfAbsent(priority, priority.getDefaultWeight());
+            lastFinishTags.put(priority, 0.0);
+            stats.put(priority, new ClassStats());
+        }
+    }
+
+    private static Map<RequestPriority, Integer> defaultWeights() {
+        Map<RequestPriority, Integer> weights = new EnumMap<>(RequestPriority.class);
+        for (RequestPriority priority : RequestPriority.values()) {
+            weights.put(priority, priority.getDefaultWeight());
+        }
+        return weights;
+    }
+
+    /**
+     * Runs the call once a permit is granted to the priority class of the calling thread.
+     * Waiting for the permit counts against the {@link Deadline} of the thread, if any.
+     */
+    public <T> T execute(Supplier<T> call) {
+        RequestPriority priority = RequestPriority.current() != null ? RequestPriority.current() : defaultPriority;
+        acquire(priority);
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    public Map<RequestPriority, QueueTimeStats> stats() {
+        lock.lock();
+        try {
+            Map<RequestPriority, QueueTimeStats> snapshot = new EnumMap<>(RequestPriority.class);
+            stats.forEach((priority, classStats) -> snapshot.put(priority, new QueueTimeStats(priority,
+                    classStats.requests,
+                    classStats.queuedRequests,
+                    classStats.waiting,
+                    classStats.requests == 0 ? 0 : toMillis(classStats.totalQueueNanos / (double) classStats.requests),
+                    toMillis(classStats.maxQueueNanos))));
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(RequestPriority priority) {
+        long start = System.nanoTime();
+        Deadline deadline = Deadline.current();
+        lock.lock();
+        try {
+            ClassStats classStats = stats.get(priority);
+            if (availablePermits > 0 && waiters.isEmpty()) {
+                availablePermits--;
+                classStats.requests++;
+                return;
+            }
+
+            double finishTag = Math.max(virtualTime, lastFinishTags.get(priority)) + 1.0 / weights.get(priority);
+            lastFinishTags.put(priority, finishTag);
+            Waiter waiter = new Waiter(priority, finishTag, sequence++, lock.newCondition());
+            waiters.add(waiter);
+            classStats.waiting++;
+            try {
+                awaitPermit(waiter, deadline);
+            } finally {
+                classStats.waiting--;
+            }
+
+            long queueNanos = System.nanoTime() - start;
+            classStats.requests++;
+            classStats.queuedRequests++;
+            classStats.totalQueueNanos += queueNanos;
+            classStats.maxQueueNanos = Math.max(classStats.maxQueueNanos, queueNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitPermit(Waiter waiter, Deadline deadline) {
+        try {
+            while (!waiter.admitted) {
+                if (deadline == null) {
+                    waiter.granted.await();
+                } else if (waiter.granted.awaitNanos(deadline.remaining().toNanos()) <= 0 && !waiter.admitted) {
+                    waiters.remove(waiter);
+                    throw deadline.exceeded("queue for " + waiter.priority + " permit", null);
+                }
+            }
+        } catch (InterruptedException ex) {
+            if (waiter.admitted) {
+                releaseLocked();
+            } else {
+                waiters.remove(waiter);
+            }
+            Thread.currentThread().interrupt();
+            throw new MovieErrorResponse("Interrupted while waiting for a connection permit", ex);
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            releaseLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked() {
+        Waiter next = waiters.poll();
+        if (next == null) {
+            availablePermits++;
+            return;
+        }
+        virtualTime = next.finishTag;
+        next.admitted = true;
+        next.granted.signal();
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.bieniek.learnwiremock.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class QueueTimeStats {
+
+    private RequestPriority priority;
+    private long requests;
+    private long queuedRequests;
+    private int waiting;
+    private double meanQueueMillis;
+    private double maxQueueMillis;
+}
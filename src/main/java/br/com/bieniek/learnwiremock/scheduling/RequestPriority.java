@@ -0,0 +1,62 @@
+package br.com.bieniek.learnwiremock.scheduling;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority class of a movie service request, used by {@link PriorityRequestScheduler}.
+ *
+ * Requests are tagged by running them inside {@link #call(Supplier)}, which applies to every call
+ * made on the same thread until it returns :
+ *
+ * <pre>
+ *     List&lt;Movie&gt; movies = RequestPriority.BATCH.call(() -> moviesRestClient.retrieveMovieByYear(2012));
+ * </pre>
+ */
+public enum RequestPriority {
+
+    INTERACTIVE(8),
+    BATCH(1);
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    private final int defaultWeight;
+
+    RequestPriority(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Share of the connections this class gets when every class has requests waiting.
+     */
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    /**
+     * The priority the calling thread is tagged with, or {@code null} when untagged.
+     */
+    public static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    public <T> T call(Supplier<T> operation) {
+        RequestPriority enclosing = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return operation.get();
+        } finally {
+            if (enclosing == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(enclosing);
+            }
+        }
+    }
+
+    public void run(Runnable operation) {
+        call(() -> {
+            operation.run();
+            return null;
+        });
+    }
+}
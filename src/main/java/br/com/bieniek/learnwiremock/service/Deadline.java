@@ -0,0 +1,84 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which a {@link MoviesRestClient} call has to complete, connection pool acquire,
+ * connect and response included.
+ *
+ * A deadline applies to every call made from {@link #call(Supplier)} on the same thread, so code
+ * deeper in the stack inherits it without passing it around. Nested deadlines never extend the
+ * enclosing one, the earliest of them wins.
+ *
+ * <pre>
+ *     Movie movie = Deadline.after(Duration.ofMillis(200)).call(() -> moviesRestClient.retrieveMovieById(1));
+ * </pre>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * The deadline of the calling thread, or {@code null} when the calls are unbounded.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0));
+    }
+
+    /**
+     * Fails fast, before any I/O, when there is no time left.
+     */
+    public Duration checkRemaining(String operation) {
+        Duration remaining = remaining();
+        if (remaining.isZero()) {
+            throw exceeded(operation, null);
+        }
+        return remaining;
+    }
+
+    public DeadlineExceededException exceeded(String operation, Throwable cause) {
+        return new DeadlineExceededException("Deadline exceeded in " + operation, cause);
+    }
+
+    public <T> T call(Supplier<T> operation) {
+        Deadline enclosing = CURRENT.get();
+        CURRENT.set(enclosing != null && enclosing.deadlineNanos - deadlineNanos < 0 ? enclosing : this);
+        try {
+            return operation.get();
+        } finally {
+            if (enclosing == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(enclosing);
+            }
+        }
+    }
+
+    public void run(Runnable operation) {
+        call(() -> {
+            operation.run();
+            return null;
+        });
+    }
+}
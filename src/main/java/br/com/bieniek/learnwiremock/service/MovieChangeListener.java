@@ -0,0 +1,19 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+
+/**
+ * Receives add/update/delete notifications for movies of the catalog.
+ * All methods default to no-op so listeners only override what they care about.
+ */
+public interface MovieChangeListener {
+
+    default void onMovieAdded(Movie movie) {
+    }
+
+    default void onMovieUpdated(Movie previous, Movie current) {
+    }
+
+    default void onMovieDeleted(Movie movie) {
+    }
+}
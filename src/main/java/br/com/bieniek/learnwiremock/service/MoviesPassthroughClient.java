@@ -0,0 +1,13 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.PassthroughResponse;
+
+/**
+ * Retrieves movie payloads as the raw bytes sent by the movie service, for callers that only
+ * forward them and have no use for {@link br.com.bieniek.learnwiremock.dto.Movie} objects.
+ */
+public interface MoviesPassthroughClient {
+
+    PassthroughResponse retrieveAllMoviesRaw();
+    PassthroughResponse retrieveMovieByIdRaw(Integer movieId);
+}
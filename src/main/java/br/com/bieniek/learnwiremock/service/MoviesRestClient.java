@@ -1,7 +1,10 @@
 package br.com.bieniek.learnwiremock.service;
 
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
 import br.com.bieniek.learnwiremock.dto.Movie;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MoviesRestClient {
@@ -14,4 +17,8 @@ public interface MoviesRestClient {
     Movie updateMovie(Integer movieId, Movie movie);
     String deleteMovieById(Integer movieId);
     String deleteMovieByName(String movieName);
+    BulkDeleteResult deleteMoviesById(Collection<Integer> movieIds, BulkDeleteOptions options);
+    BulkDeleteResult deleteMoviesByName(Collection<String> movieNames, BulkDeleteOptions options);
+    BulkDeleteResult.Outcome deleteMovieById(Integer movieId, BulkDeleteOptions options);
+    BulkDeleteResult.Outcome deleteMovieByName(String movieName, BulkDeleteOptions options);
 }
@@ -0,0 +1,120 @@
+package br.com.bieniek.learnwiremock.service.impl;
+
+import br.com.bieniek.learnwiremock.cache.CacheStats;
+import br.com.bieniek.learnwiremock.cache.TwoTierMovieCache;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link MoviesRestClient} answering {@link #retrieveMovieById(Integer)} and
+ * {@link #retrieveMovieByYear(Integer)} from a {@link TwoTierMovieCache}.
+ *
+ * Writes go to the movie service first and then invalidate what they may have changed. The year
+ * lists are all dropped on update and delete since the previous year of the movie is not known.
+ * Cached lookups return copies, so callers may modify their results as with an uncached client.
+ */
+@RequiredArgsConstructor
+public class CachingMoviesRestClient implements MoviesRestClient {
+
+    private final MoviesRestClient moviesRestClient;
+    private final TwoTierMovieCache movieCache;
+
+    public CachingMoviesRestClient(MoviesRestClient moviesRestClient) {
+        this(moviesRestClient, new TwoTierMovieCache());
+    }
+
+    public CacheStats cacheStats() {
+        return movieCache.stats();
+    }
+
+    public List<Movie> retrieveAllMovies() {
+        return moviesRestClient.retrieveAllMovies();
+    }
+
+    public Movie retrieveMovieById(Integer movieId) {
+        return movieCache.getMovie(movieId, () -> moviesRestClient.retrieveMovieById(movieId));
+    }
+
+    public List<Movie> retrieveMovieByName(String movieName) {
+        return moviesRestClient.retrieveMovieByName(movieName);
+    }
+
+    public List<Movie> retrieveMovieByYear(Integer year) {
+        return movieCache.getMoviesByYear(year, () -> moviesRestClient.retrieveMovieByYear(year));
+    }
+
+    public Movie addNewMovie(Movie newMovie) {
+        Movie movie = moviesRestClient.addNewMovie(newMovie);
+        movieCache.invalidateYear(movie != null ? movie.getYear() : newMovie.getYear());
+        return movie;
+    }
+
+    public Movie updateMovie(Integer movieId, Movie movie) {
+        try {
+            return moviesRestClient.updateMovie(movieId, movie);
+        } finally {
+            movieCache.invalidateMovie(movieId);
+            movieCache.invalidateAllYears();
+        }
+    }
+
+    public String deleteMovieById(Integer movieId) {
+        try {
+            return moviesRestClient.deleteMovieById(movieId);
+        } finally {
+            movieCache.invalidateMovie(movieId);
+            movieCache.invalidateAllYears();
+        }
+    }
+
+    /**
+     * The ids of the deleted movies are unknown, so the whole cache is dropped.
+     */
+    public String deleteMovieByName(String movieName) {
+        try {
+            return moviesRestClient.deleteMovieByName(movieName);
+        } finally {
+            movieCache.invalidateAll();
+        }
+    }
+
+    public BulkDeleteResult deleteMoviesById(Collection<Integer> movieIds, BulkDeleteOptions options) {
+        try {
+            return moviesRestClient.deleteMoviesById(movieIds, options);
+        } finally {
+            movieIds.forEach(movieCache::invalidateMovie);
+            movieCache.invalidateAllYears();
+        }
+    }
+
+    public BulkDeleteResult deleteMoviesByName(Collection<String> movieNames, BulkDeleteOptions options) {
+        try {
+            return moviesRestClient.deleteMoviesByName(movieNames, options);
+        } finally {
+            movieCache.invalidateAll();
+        }
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieById(Integer movieId, BulkDeleteOptions options) {
+        try {
+            return moviesRestClient.deleteMovieById(movieId, options);
+        } finally {
+            movieCache.invalidateMovie(movieId);
+            movieCache.invalidateAllYears();
+        }
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieByName(String movieName, BulkDeleteOptions options) {
+        try {
+            return moviesRestClient.deleteMovieByName(movieName, options);
+        } finally {
+            movieCache.invalidateAll();
+        }
+    }
+}
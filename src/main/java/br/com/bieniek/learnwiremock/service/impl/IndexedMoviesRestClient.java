@@ -0,0 +1,126 @@
+package br.com.bieniek.learnwiremock.service.impl;
+
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.index.ActorIndex;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link MoviesRestClient} that feeds every movie it loads or changes into an {@link ActorIndex},
+ * so movies can be looked up by actor without downloading the catalog again.
+ */
+@RequiredArgsConstructor
+public class IndexedMoviesRestClient implements MoviesRestClient {
+
+    private final MoviesRestClient moviesRestClient;
+    private final ActorIndex actorIndex;
+
+    public IndexedMoviesRestClient(MoviesRestClient moviesRestClient) {
+        this(moviesRestClient, new ActorIndex());
+    }
+
+    /**
+     * Only covers the movies this client has loaded so far.
+     */
+    public List<Movie> findMoviesByActor(String actor) {
+        return actorIndex.findMoviesByActor(actor);
+    }
+
+    public List<Movie> retrieveAllMovies() {
+        List<Movie> movieList = moviesRestClient.retrieveAllMovies();
+        actorIndex.indexAll(movieList);
+        return movieList;
+    }
+
+    public Movie retrieveMovieById(Integer movieId) {
+        Movie movie = moviesRestClient.retrieveMovieById(movieId);
+        actorIndex.index(movie);
+        return movie;
+    }
+
+    public List<Movie> retrieveMovieByName(String movieName) {
+        List<Movie> movieList = moviesRestClient.retrieveMovieByName(movieName);
+        actorIndex.indexAll(movieList);
+        return movieList;
+    }
+
+    public List<Movie> retrieveMovieByYear(Integer year) {
+        List<Movie> movieList = moviesRestClient.retrieveMovieByYear(year);
+        actorIndex.indexAll(movieList);
+        return movieList;
+    }
+
+    public Movie addNewMovie(Movie newMovie) {
+        Movie movie = moviesRestClient.addNewMovie(newMovie);
+        actorIndex.index(movie);
+        return movie;
+    }
+
+    public Movie updateMovie(Integer movieId, Movie movie) {
+        Movie updatedMovie = moviesRestClient.updateMovie(movieId, movie);
+        actorIndex.index(updatedMovie);
+        return updatedMovie;
+    }
+
+    public String deleteMovieById(Integer movieId) {
+        String response = moviesRestClient.deleteMovieById(movieId);
+        actorIndex.remove(movieId.longValue());
+        return response;
+    }
+
+    public String deleteMovieByName(String movieName) {
+        String response = moviesRestClient.deleteMovieByName(movieName);
+        actorIndex.removeByName(movieName);
+        return response;
+    }
+
+    /**
+     * Every movie is removed from the index except those whose delete failed.
+     */
+    public BulkDeleteResult deleteMoviesById(Collection<Integer> movieIds, BulkDeleteOptions options) {
+        BulkDeleteResult result = moviesRestClient.deleteMoviesById(movieIds, options);
+        Set<String> failedKeys = failedKeys(result);
+        movieIds.stream()
+                .filter(movieId -> movieId != null && !failedKeys.contains(movieId.toString()))
+                .forEach(movieId -> actorIndex.remove(movieId.longValue()));
+        return result;
+    }
+
+    public BulkDeleteResult deleteMoviesByName(Collection<String> movieNames, BulkDeleteOptions options) {
+        BulkDeleteResult result = moviesRestClient.deleteMoviesByName(movieNames, options);
+        Set<String> failedKeys = failedKeys(result);
+        movieNames.stream()
+                .filter(movieName -> movieName != null && !failedKeys.contains(movieName))
+                .forEach(actorIndex::removeByName);
+        return result;
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieById(Integer movieId, BulkDeleteOptions options) {
+        BulkDeleteResult.Outcome outcome = moviesRestClient.deleteMovieById(movieId, options);
+        if (!outcome.isFailed() && movieId != null) {
+            actorIndex.remove(movieId.longValue());
+        }
+        return outcome;
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieByName(String movieName, BulkDeleteOptions options) {
+        BulkDeleteResult.Outcome outcome = moviesRestClient.deleteMovieByName(movieName, options);
+        if (!outcome.isFailed() && movieName != null) {
+            actorIndex.removeByName(movieName);
+        }
+        return outcome;
+    }
+
+    private static Set<String> failedKeys(BulkDeleteResult result) {
+        return result.getFailures().stream()
+                .map(BulkDeleteResult.Failure::getKey)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.bieniek.learnwiremock.service.impl;
+
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.*;
+
+/**
+ * Precompiled request URIs for the movie service endpoints.
+ *
+ * The templates from {@link br.com.bieniek.learnwiremock.constants.MovieAppConstants} are split
+ * into a fixed prefix once, and every expanded URI is cached as an absolute {@link URI}. Passing an
+ * absolute {@link URI} to the {@link WebClient} skips its own template parsing and encoding, so a
+ * repeated id, name or year costs a single map lookup and no garbage. A {@code null} key is expanded
+ * to an empty value as {@link org.springframework.web.util.UriComponentsBuilder} does, so the request
+ * still reaches the movie service, and is not cached.
+ */
+class MovieRequestTemplates {
+
+    static final int MAX_CACHED_URIS = 1024;
+
+    private final String baseUrl;
+    private final URI allMovies;
+    private final URI addMovie;
+    private final String movieByIdPrefix;
+    private final String movieByNamePrefix;
+    private final String movieByYearPrefix;
+
+    private final Map<Integer, URI> movieByIdUris = new ConcurrentHashMap<>();
+    private final Map<String, URI> movieByNameUris = new ConcurrentHashMap<>();
+    private final Map<Integer, URI> movieByYearUris = new ConcurrentHashMap<>();
+
+    MovieRequestTemplates(WebClient webClient) {
+        this(resolveBaseUrl(webClient));
+    }
+
+    MovieRequestTemplates(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.allMovies = URI.create(this.baseUrl + GET_ALL_MOVIES_V1);
+        this.addMovie = URI.create(this.baseUrl + ADD_MOVIE_V1);
+        this.movieByIdPrefix = this.baseUrl + MOVIE_BY_ID_PATH_PARAM_V1.replace("{id}", "");
+        this.movieByNamePrefix = this.baseUrl + MOVIE_BY_NAME_QUERY_PARAM_V1 + "?movie_name=";
+        this.movieByYearPrefix = this.baseUrl + MOVIE_BY_YEAR_QUERY_PARAM_V1 + "?year=";
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    URI allMovies() {
+        return allMovies;
+    }
+
+    URI addMovie() {
+        return addMovie;
+    }
+
+    URI movieById(Integer movieId) {
+        if (movieId == null) {
+            return URI.create(movieByIdPrefix);
+        }
+        URI uri = movieByIdUris.get(movieId);
+        return uri != null ? uri : cache(movieByIdUris, movieId, URI.create(movieByIdPrefix + movieId));
+    }
+
+    URI movieByName(String movieName) {
+        if (movieName == null) {
+            return withoutValue(movieByNamePrefix);
+        }
+        URI uri = movieByNameUris.get(movieName);
+        return uri != null ? uri : cache(movieByNameUris, movieName,
+                URI.create(movieByNamePrefix + UriUtils.encodeQueryParam(movieName, StandardCharsets.UTF_8)));
+    }
+
+    URI movieByYear(Integer year) {
+        if (year == null) {
+            return withoutValue(movieByYearPrefix);
+        }
+        URI uri = movieByYearUris.get(year);
+        return uri != null ? uri : cache(movieByYearUris, year, URI.create(movieByYearPrefix + year));
+    }
+
+    /**
+     * A query parameter without a value, {@code ?year} rather than {@code ?year=}.
+     */
+    private static URI withoutValue(String queryPrefix) {
+        return URI.create(queryPrefix.substring(0, queryPrefix.length() - 1));
+    }
+
+    private static <K> URI cache(Map<K, URI> uris, K key, URI uri) {
+        if (uris.size() >= MAX_CACHED_URIS) {
+            uris.clear();
+        }
+        uris.put(key, uri);
+        return uri;
+    }
+
+    /**
+     * The base url is only known to the {@link WebClient}, so it is read back once through its
+     * uri builder. Building a request spec without retrieving it sends nothing.
+     */
+    private static String resolveBaseUrl(WebClient webClient) {
+        AtomicReference<URI> baseUri = new AtomicReference<>();
+        webClient.get().uri(uriBuilder -> {
+            baseUri.set(uriBuilder.build());
+            return baseUri.get();
+        });
+        return baseUri.get().toString();
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.bieniek.learnwiremock.service.impl;
+
+import br.com.bieniek.learnwiremock.dto.PassthroughResponse;
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.service.Deadline;
+import br.com.bieniek.learnwiremock.service.MoviesPassthroughClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+public class MoviesPassthroughClientImpl implements MoviesPassthroughClient {
+
+    private final WebClient webClient;
+    private final MovieRequestTemplates requestTemplates;
+
+    public MoviesPassthroughClientImpl(WebClient webClient) {
+        this.webClient = webClient;
+        this.requestTemplates = new MovieRequestTemplates(webClient);
+    }
+
+    public PassthroughResponse retrieveAllMoviesRaw() {
+        ClientResponse clientResponse;
+        try {
+            clientResponse = awaitWithinDeadline("retrieveAllMoviesRaw", webClient.get().uri(requestTemplates.allMovies())
+                    .exchange()); // only waits for the status line and headers
+        } catch (DeadlineExceededException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Exception in retrieveAllMoviesRaw - The Error Message is {} ", ex.getMessage());
+            throw new MovieErrorResponse(ex);
+        }
+        return toPassthroughResponse(clientResponse);
+    }
+
+    public PassthroughResponse retrieveMovieByIdRaw(Integer movieId) {
+        ClientResponse clientResponse;
+        try {
+            clientResponse = awaitWithinDeadline("retrieveMovieByIdRaw", webClient.get().uri(requestTemplates.movieById(movieId))
+                    .exchange());
+        } catch (DeadlineExceededException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Exception in retrieveMovieByIdRaw - The Error Message is {} ", ex.getMessage());
+            throw new MovieErrorResponse(ex);
+        }
+        return toPassthroughResponse(clientResponse);
+    }
+
+    /**
+     * Bounded by the {@link Deadline} of the calling thread if there is one. The body is read later
+     * by the caller, so the deadline only covers the status line and headers here.
+     */
+    private ClientResponse awaitWithinDeadline(String operation, Mono<ClientResponse> exchange) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return exchange.block();
+        }
+        return exchange.timeout(deadline.checkRemaining(operation), Mono.defer(() -> Mono.error(deadline.exceeded(operation, null))))
+                .block();
+    }
+
+    /**
+     * Error statuses are handed back as well, so they can be forwarded like any other response.
+     */
+    private PassthroughResponse toPassthroughResponse(ClientResponse clientResponse) {
+        return new PassthroughResponse(clientResponse.rawStatusCode(),
+                clientResponse.headers().asHttpHeaders(),
+                clientResponse.body(BodyExtractors.toDataBuffers()));
+    }
+}
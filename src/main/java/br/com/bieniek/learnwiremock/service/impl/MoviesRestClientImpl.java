@@ -1,37 +1,66 @@
 package br.com.bieniek.learnwiremock.service.impl;
 
-import br.com.bieniek.learnwiremock.constants.MovieAppConstants;
+import br.com.bieniek.learnwiremock.constants.MovieWireFormat;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
 import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
 import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.recording.TrafficRecorder;
+import br.com.bieniek.learnwiremock.service.Deadline;
 import br.com.bieniek.learnwiremock.service.MoviesRestClient;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-
-import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.*;
+import java.util.function.Function;
 
 @Slf4j
-@RequiredArgsConstructor
 public class MoviesRestClientImpl implements MoviesRestClient {
 
     private final WebClient webClient;
+    private final MovieRequestTemplates requestTemplates;
+    private final MovieWireFormat wireFormat;
+    private final TrafficRecorder trafficRecorder;
+
+    public MoviesRestClientImpl(WebClient webClient) {
+        this(webClient, MovieWireFormat.JSON);
+    }
+
+    public MoviesRestClientImpl(WebClient webClient, MovieWireFormat wireFormat) {
+        this(webClient, wireFormat, null);
+    }
+
+    /**
+     * @param trafficRecorder records every call made through this client, or {@code null} to record nothing
+     */
+    public MoviesRestClientImpl(WebClient webClient, MovieWireFormat wireFormat, TrafficRecorder trafficRecorder) {
+        this.webClient = webClient;
+        this.requestTemplates = new MovieRequestTemplates(webClient);
+        this.wireFormat = wireFormat;
+        this.trafficRecorder = trafficRecorder;
+    }
 
     public List<Movie> retrieveAllMovies() {
-        String getAllMoviesUrl = GET_ALL_MOVIES_V1;
         List<Movie> movieList;
         try {
-            movieList = webClient.get().uri(getAllMoviesUrl)
+            movieList = execute("retrieveAllMovies", null, null, webClient.get().uri(requestTemplates.allMovies())
+                    .headers(wireFormat.acceptHeaders())
                     .retrieve() // actual call is made to the api
                     .bodyToFlux(Movie.class) //body is converted to flux(Represents multiple items)
-                    .collectList() // collecting the httpResponse as a list\
-                    .block(); // This call makes the Webclient to behave as a synchronous client.
+                    .collectList()); // collecting the httpResponse as a list, then waiting for it makes the Webclient behave as a synchronous client.
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException - Error Message is : {} ", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -40,16 +69,17 @@ public class MoviesRestClientImpl implements MoviesRestClient {
     }
 
     public Movie retrieveMovieById(Integer movieId) {
-        String movieByIdURL =  MOVIE_BY_ID_PATH_PARAM_V1;
         Movie movie;
         try {
-            movie = webClient.get().uri(movieByIdURL, movieId) //mapping the movie id to the url
+            movie = execute("retrieveMovieById", movieId, null, webClient.get().uri(requestTemplates.movieById(movieId)) //mapping the movie id to the url
+                    .headers(wireFormat.acceptHeaders())
                     .retrieve()
-                    .bodyToMono(Movie.class) //body is converted to Mono(Represents single item)
-                    .block();
+                    .bodyToMono(Movie.class)); //body is converted to Mono(Represents single item)
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException - Error Message is : {} ", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -61,20 +91,18 @@ public class MoviesRestClientImpl implements MoviesRestClient {
     public List<Movie> retrieveMovieByName(String movieName) {
 
         List<Movie> movieList = null;
-        String retrieveByNameUri = UriComponentsBuilder.fromUriString( MOVIE_BY_NAME_QUERY_PARAM_V1)
-                .queryParam("movie_name", movieName)
-                .buildAndExpand()
-                .toUriString();
 
         try {
-            movieList = webClient.get().uri(retrieveByNameUri)
+            movieList = execute("retrieveMovieByName", movieName, null, webClient.get().uri(requestTemplates.movieByName(movieName))
+                    .headers(wireFormat.acceptHeaders())
                     .retrieve()
                     .bodyToFlux(Movie.class)
-                    .collectList()
-                    .block();
+                    .collectList());
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in retrieveMovieByName - Error Message is : {} ", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -84,21 +112,19 @@ public class MoviesRestClientImpl implements MoviesRestClient {
 
 
     public List<Movie> retrieveMovieByYear(Integer year) {
-        String retrieveByYearUri = UriComponentsBuilder.fromUriString( MOVIE_BY_YEAR_QUERY_PARAM_V1)
-                .queryParam("year", year)
-                .buildAndExpand()
-                .toUriString();
         List<Movie> movieList;
 
         try {
-            movieList = webClient.get().uri(retrieveByYearUri)
+            movieList = execute("retrieveMovieByYear", year, null, webClient.get().uri(requestTemplates.movieByYear(year))
+                    .headers(wireFormat.acceptHeaders())
                     .retrieve()
                     .bodyToFlux(Movie.class)
-                    .collectList()
-                    .block();
+                    .collectList());
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in retreieveMovieByYear - Error Message is : {} ", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -110,15 +136,17 @@ public class MoviesRestClientImpl implements MoviesRestClient {
         Movie movie;
 
         try {
-            movie = webClient.post().uri( ADD_MOVIE_V1)
+            movie = execute("addNewMovie", null, newMovie, webClient.post().uri(requestTemplates.addMovie())
+                    .headers(wireFormat.acceptHeaders())
                     .syncBody(newMovie)
                     .retrieve()
-                    .bodyToMono(Movie.class)
-                    .block();
+                    .bodyToMono(Movie.class));
             log.info("New Movie SuccessFully addded {} ", movie);
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException - Error Message is : {} , and the Error Response Body is {}", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -130,15 +158,17 @@ public class MoviesRestClientImpl implements MoviesRestClient {
         Movie updatedMovie;
 
         try {
-            updatedMovie = webClient.put().uri( MOVIE_BY_ID_PATH_PARAM_V1, movieId)
+            updatedMovie = execute("updateMovie", movieId, movie, webClient.put().uri(requestTemplates.movieById(movieId))
+                    .headers(wireFormat.acceptHeaders())
                     .syncBody(movie)
                     .retrieve()
-                    .bodyToMono(Movie.class)
-                    .block();
+                    .bodyToMono(Movie.class));
             log.info(" Movie SuccessFully updated {} ", updatedMovie);
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException - Error Message is : {}", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -151,13 +181,14 @@ public class MoviesRestClientImpl implements MoviesRestClient {
 
         String response;
         try {
-            response = webClient.delete().uri( MOVIE_BY_ID_PATH_PARAM_V1, movieId)
+            response = execute("deleteMovieById", movieId, null, webClient.delete().uri(requestTemplates.movieById(movieId))
                     .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+                    .bodyToMono(String.class));
         }catch (WebClientResponseException ex) {
             log.error("WebClientResponseException - Error Message is : {}", ex, ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception - The Error Message is {} ", ex.getMessage());
             throw new MovieErrorResponse(ex);
@@ -170,19 +201,15 @@ public class MoviesRestClientImpl implements MoviesRestClient {
     public String deleteMovieByName(String movieName){
 
         try{
-            String deleteMovieByNameURI = UriComponentsBuilder.fromUriString(MOVIE_BY_NAME_QUERY_PARAM_V1)
-                    .queryParam("movie_name", movieName)
-                    .buildAndExpand()
-                    .toUriString();
-
-            webClient.delete().uri(deleteMovieByNameURI)
+            execute("deleteMovieByName", movieName, null, webClient.delete().uri(requestTemplates.movieByName(movieName))
                     .retrieve()
-                    .bodyToMono(Void.class)
-                    .block();
+                    .bodyToMono(Void.class));
 
         }catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in deleteMovie. Status code is {} and the message is {} ", ex.getRawStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
+        } catch (DeadlineExceededException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Exception in deleteMovie and the message is {} ", ex);
             throw new MovieErrorResponse(ex);
@@ -190,4 +217,135 @@ public class MoviesRestClientImpl implements MoviesRestClient {
 
         return "Movie Deleted Successfully";
     }
+
+    public BulkDeleteResult deleteMoviesById(Collection<Integer> movieIds, BulkDeleteOptions options) {
+        return deleteAll("deleteMoviesById", "deleteMovieById", movieIds, requestTemplates::movieById, options);
+    }
+
+    public BulkDeleteResult deleteMoviesByName(Collection<String> movieNames, BulkDeleteOptions options) {
+        return deleteAll("deleteMoviesByName", "deleteMovieByName", movieNames, requestTemplates::movieByName, options);
+    }
+
+    /**
+     * Deletes a single key the way {@link #deleteMoviesById(Collection, BulkDeleteOptions)} does,
+     * without raising an exception or logging.
+     */
+    public BulkDeleteResult.Outcome deleteMovieById(Integer movieId, BulkDeleteOptions options) {
+        return delete("deleteMovieById", movieId, requestTemplates::movieById, options, Deadline.current()).block();
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieByName(String movieName, BulkDeleteOptions options) {
+        return delete("deleteMovieByName", movieName, requestTemplates::movieByName, options, Deadline.current()).block();
+    }
+
+    /**
+     * Pipelines one DELETE per key with at most {@code options.concurrency} in flight. Every key is
+     * settled on its own : a failed key does not stop the others, and an error status is read from
+     * the response instead of being raised as an exception. The {@link Deadline}, if any, bounds the
+     * whole batch : the requests still in flight when it expires are cancelled, and they and the keys
+     * not sent yet are reported as failures with status {@code 0}, so the result stays complete.
+     */
+    private <K> BulkDeleteResult deleteAll(String operation, String recordedOperation, Collection<K> keys,
+                                           Function<K, URI> uri, BulkDeleteOptions options) {
+        Deadline deadline = Deadline.current();
+        List<K> keyList = new ArrayList<>(keys);
+        BulkDeleteResult result;
+        try {
+            // indexed, as a Flux cannot carry the null keys that are settled as failures
+            result = Flux.range(0, keyList.size())
+                    .flatMap(index -> delete(recordedOperation, keyList.get(index), uri, options, deadline), options.getConcurrency())
+                    .collectList()
+                    .map(BulkDeleteResult::of)
+                    .block();
+        } catch (Exception ex) {
+            log.error("Exception in {} and the message is {} ", operation, ex.getMessage());
+            throw new MovieErrorResponse(ex);
+        }
+        log.info("{} finished : {} deleted, {} missing, {} failed", operation, result.getDeleted(), result.getMissing(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Never fails : an error or an expired deadline is settled as a failed outcome. The outcome is
+     * only counted once emitted, so a key whose response races with the deadline is counted once.
+     */
+    private <K> Mono<BulkDeleteResult.Outcome> delete(String operation, K key, Function<K, URI> uri,
+                                                      BulkDeleteOptions options, Deadline deadline) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<BulkDeleteResult.Outcome> deadlineExceeded = Mono.fromCallable(() -> {
+                record(operation, key, start, 0, null);
+                return BulkDeleteResult.Outcome.failed(key, 0, "deadline exceeded");
+            });
+            if (deadline != null && deadline.isExpired()) {
+                return deadlineExceeded;
+            }
+            Mono<BulkDeleteResult.Outcome> request = Mono.fromCallable(() -> uri.apply(key))
+                    .flatMap(keyUri -> webClient.delete().uri(keyUri).exchange())
+                    .flatMap(response -> {
+                        int status = response.rawStatusCode();
+                        boolean deleted = status >= 200 && status < 300;
+                        if (deleted || (status == HttpStatus.NOT_FOUND.value() && options.isTreatNotFoundAsSuccess())) {
+                            return response.bodyToMono(Void.class).then(Mono.fromCallable(() -> {
+                                record(operation, key, start, status, null);
+                                return deleted ? BulkDeleteResult.Outcome.deleted(key) : BulkDeleteResult.Outcome.missing(key);
+                            }));
+                        }
+                        return response.bodyToMono(String.class)
+                                .defaultIfEmpty("")
+                                .map(body -> {
+                                    record(operation, key, start, status, body);
+                                    return BulkDeleteResult.Outcome.failed(key, status, body);
+                                });
+                    })
+                    .onErrorResume(ex -> {
+                        record(operation, key, start, 0, null);
+                        return Mono.just(BulkDeleteResult.Outcome.failed(key, 0, String.valueOf(ex.getMessage())));
+                    });
+            return deadline == null ? request : request.timeout(deadline.remaining(), deadlineExceeded);
+        });
+    }
+
+    private void record(String operation, Object argument, long start, int status, Object responseBody) {
+        if (trafficRecorder != null) {
+            trafficRecorder.record(operation, argument, null, start, status, responseBody);
+        }
+    }
+
+    /**
+     * Waits for the response and hands the call to the {@link TrafficRecorder}, if there is one.
+     * Successful calls are recorded with status 200 as {@code retrieve()} does not expose the status.
+     */
+    private <T> T execute(String operation, Object argument, Object requestBody, Mono<T> response) {
+        if (trafficRecorder == null) {
+            return awaitWithinDeadline(operation, response);
+        }
+        long start = System.nanoTime();
+        try {
+            T result = awaitWithinDeadline(operation, response);
+            trafficRecorder.record(operation, argument, requestBody, start, HttpStatus.OK.value(), result);
+            return result;
+        } catch (WebClientResponseException ex) {
+            trafficRecorder.record(operation, argument, requestBody, start, ex.getRawStatusCode(), ex.getResponseBodyAsString());
+            throw ex;
+        } catch (RuntimeException ex) {
+            trafficRecorder.record(operation, argument, requestBody, start, 0, null);
+            throw ex;
+        }
+    }
+
+    /**
+     * Blocks for the response, bounded by the {@link Deadline} of the calling thread if there is one.
+     * The timeout covers pool acquire, connect and response, and cancelling the exchange on expiry
+     * frees its connection instead of leaving it busy until the socket timeout. Only the expiry of
+     * this timeout is reported as the deadline, other timeouts such as a pool acquire keep their error.
+     */
+    private <T> T awaitWithinDeadline(String operation, Mono<T> response) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return response.block();
+        }
+        return response.timeout(deadline.checkRemaining(operation), Mono.defer(() -> Mono.error(deadline.exceeded(operation, null))))
+                .block();
+    }
 }
@@ -0,0 +1,131 @@
+package br.com.bieniek.learnwiremock.service.impl;
+
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
+import br.com.bieniek.learnwiremock.scheduling.PriorityRequestScheduler;
+import br.com.bieniek.learnwiremock.scheduling.QueueTimeStats;
+import br.com.bieniek.learnwiremock.scheduling.RequestPriority;
+import br.com.bieniek.learnwiremock.service.Deadline;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link MoviesRestClient} whose calls wait for a {@link PriorityRequestScheduler} permit before
+ * using the connection pool, so interactive lookups are not stuck behind batch floods.
+ * Calls are tagged with {@link RequestPriority#call(java.util.function.Supplier)}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PrioritizedMoviesRestClient implements MoviesRestClient {
+
+    private final MoviesRestClient moviesRestClient;
+    private final PriorityRequestScheduler requestScheduler;
+
+    public Map<RequestPriority, QueueTimeStats> queueTimeStats() {
+        return requestScheduler.stats();
+    }
+
+    public List<Movie> retrieveAllMovies() {
+        return requestScheduler.execute(moviesRestClient::retrieveAllMovies);
+    }
+
+    public Movie retrieveMovieById(Integer movieId) {
+        return requestScheduler.execute(() -> moviesRestClient.retrieveMovieById(movieId));
+    }
+
+    public List<Movie> retrieveMovieByName(String movieName) {
+        return requestScheduler.execute(() -> moviesRestClient.retrieveMovieByName(movieName));
+    }
+
+    public List<Movie> retrieveMovieByYear(Integer year) {
+        return requestScheduler.execute(() -> moviesRestClient.retrieveMovieByYear(year));
+    }
+
+    public Movie addNewMovie(Movie newMovie) {
+        return requestScheduler.execute(() -> moviesRestClient.addNewMovie(newMovie));
+    }
+
+    public Movie updateMovie(Integer movieId, Movie movie) {
+        return requestScheduler.execute(() -> moviesRestClient.updateMovie(movieId, movie));
+    }
+
+    public String deleteMovieById(Integer movieId) {
+        return requestScheduler.execute(() -> moviesRestClient.deleteMovieById(movieId));
+    }
+
+    public String deleteMovieByName(String movieName) {
+        return requestScheduler.execute(() -> moviesRestClient.deleteMovieByName(movieName));
+    }
+
+    /**
+     * Every key of a bulk delete waits for its own permit, so the bulk delete never has more
+     * requests in flight than it holds permits and interactive calls keep their share of the pool.
+     */
+    public BulkDeleteResult deleteMoviesById(Collection<Integer> movieIds, BulkDeleteOptions options) {
+        return deleteAll("deleteMoviesById", movieIds, options, movieId -> moviesRestClient.deleteMovieById(movieId, options));
+    }
+
+    public BulkDeleteResult deleteMoviesByName(Collection<String> movieNames, BulkDeleteOptions options) {
+        return deleteAll("deleteMoviesByName", movieNames, options, movieName -> moviesRestClient.deleteMovieByName(movieName, options));
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieById(Integer movieId, BulkDeleteOptions options) {
+        return requestScheduler.execute(() -> moviesRestClient.deleteMovieById(movieId, options));
+    }
+
+    public BulkDeleteResult.Outcome deleteMovieByName(String movieName, BulkDeleteOptions options) {
+        return requestScheduler.execute(() -> moviesRestClient.deleteMovieByName(movieName, options));
+    }
+
+    /**
+     * The keys wait for their permits on worker threads, which get the priority and deadline of the
+     * calling thread.
+     */
+    private <K> BulkDeleteResult deleteAll(String operation, Collection<K> keys, BulkDeleteOptions options,
+                                           Function<K, BulkDeleteResult.Outcome> delete) {
+        RequestPriority priority = RequestPriority.current();
+        Deadline deadline = Deadline.current();
+        List<K> keyList = new ArrayList<>(keys);
+        // indexed, as a Flux cannot carry the null keys that are settled as failures
+        BulkDeleteResult result = Flux.range(0, keyList.size())
+                .flatMap(index -> Mono.fromCallable(() -> delete(keyList.get(index), priority, deadline, delete))
+                        .subscribeOn(Schedulers.elastic()), options.getConcurrency())
+                .collectList()
+                .map(BulkDeleteResult::of)
+                .block();
+        log.info("{} finished : {} deleted, {} missing, {} failed", operation, result.getDeleted(), result.getMissing(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Settles the key as a failure when waiting for the permit or the delete itself throws, so one
+     * key cannot fail the whole bulk delete.
+     */
+    private <K> BulkDeleteResult.Outcome delete(K key, RequestPriority priority, Deadline deadline,
+                                                Function<K, BulkDeleteResult.Outcome> delete) {
+        Supplier<BulkDeleteResult.Outcome> call = () -> {
+            try {
+                return requestScheduler.execute(() -> delete.apply(key));
+            } catch (DeadlineExceededException ex) {
+                return BulkDeleteResult.Outcome.failed(key, 0, "deadline exceeded");
+            } catch (RuntimeException ex) {
+                return BulkDeleteResult.Outcome.failed(key, 0, String.valueOf(ex.getMessage()));
+            }
+        };
+        Supplier<BulkDeleteResult.Outcome> withDeadline = deadline == null ? call : () -> deadline.call(call);
+        return priority == null ? withDeadline.get() : priority.call(withDeadline);
+    }
+}
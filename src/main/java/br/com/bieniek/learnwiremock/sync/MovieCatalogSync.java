@@ -0,0 +1,272 @@
+package br.com.bieniek.learnwiremock.sync;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.dto.PassthroughResponse;
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.service.Deadline;
+import br.com.bieniek.learnwiremock.service.MovieChangeListener;
+import br.com.bieniek.learnwiremock.service.MoviesPassthroughClient;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a local copy of the movie catalog in sync with the movie service.
+ *
+ * The service has no "changed since" endpoint, so the cheap incremental pass uses the highest
+ * {@code movie_id} seen so far as a high-water mark and probes the ids above it until
+ * {@code probeWindow} consecutive ids are missing. The probes go through the
+ * {@link MoviesPassthroughClient}, so a missing id is read from the status instead of being raised
+ * and logged as an error on every healthy pass. Updates and deletes can only be seen in the
+ * full catalog, so every {@code reconcileEvery} syncs a reconcile pass compares a catalog checksum
+ * and, only when it differs, compares every movie with its local copy to find what changed.
+ *
+ * Every call to the movie service is bounded by {@code callTimeout}, as a pass holds the lock that
+ * {@link #movies()} and {@link #highWaterMark()} wait for.
+ */
+@Slf4j
+public class MovieCatalogSync {
+
+    public static final int DEFAULT_PROBE_WINDOW = 3;
+    public static final int DEFAULT_RECONCILE_EVERY = 10;
+    public static final Duration DEFAULT_CALL_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final MoviesRestClient moviesRestClient;
+    private final MoviesPassthroughClient passthroughClient;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final int probeWindow;
+    private final int reconcileEvery;
+    private final Duration callTimeout;
+    private final List<MovieChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<Long, Movie> movies = new HashMap<>();
+    private long highWaterMark;
+    private long catalogChecksum;
+    private long syncCount;
+
+    public MovieCatalogSync(MoviesRestClient moviesRestClient, MoviesPassthroughClient passthroughClient) {
+        this(moviesRestClient, passthroughClient, DEFAULT_PROBE_WINDOW, DEFAULT_RECONCILE_EVERY);
+    }
+
+    public MovieCatalogSync(MoviesRestClient moviesRestClient, MoviesPassthroughClient passthroughClient,
+                            int probeWindow, int reconcileEvery) {
+        this(moviesRestClient, passthroughClient, probeWindow, reconcileEvery, DEFAULT_CALL_TIMEOUT);
+    }
+
+    public MovieCatalogSync(MoviesRestClient moviesRestClient, MoviesPassthroughClient passthroughClient,
+                            int probeWindow, int reconcileEvery, Duration callTimeout) {
+        if (probeWindow < 1 || reconcileEvery < 1) {
+            throw new IllegalArgumentException("probeWindow and reconcileEvery must be positive");
+        }
+        if (callTimeout.isNegative() || callTimeout.isZero()) {
+            throw new IllegalArgumentException("callTimeout must be positive");
+        }
+        this.moviesRestClient = moviesRestClient;
+        this.passthroughClient = passthroughClient;
+        this.probeWindow = probeWindow;
+        this.reconcileEvery = reconcileEvery;
+        this.callTimeout = callTimeout;
+    }
+
+    public void addListener(MovieChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MovieChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Runs one sync pass: a full reconcile on the first call and every {@code reconcileEvery}
+     * calls after it, otherwise only the new movies above the high-water mark are pulled.
+     */
+    public synchronized SyncResult sync() {
+        boolean reconcile = syncCount++ % reconcileEvery == 0;
+        return reconcile ? reconcile() : pullNewMovies();
+    }
+
+    /**
+     * Downloads the catalog and publishes every difference against the local copy.
+     * Nothing is published when the catalog checksum did not change.
+     */
+    public synchronized SyncResult reconcile() {
+        List<Movie> remoteMovies = Deadline.after(callTimeout).call(moviesRestClient::retrieveAllMovies);
+        long remoteChecksum = 0;
+        for (Movie movie : remoteMovies) {
+            remoteChecksum += checksum(movie);
+        }
+        if (remoteChecksum == catalogChecksum && remoteMovies.size() == movies.size()) {
+            log.debug("Catalog checksum unchanged, {} movies in sync", movies.size());
+            return new SyncResult(0, 0, 0, true);
+        }
+
+        int added = 0;
+        int updated = 0;
+        Map<Long, Movie> removed = new HashMap<>(movies);
+        for (Movie movie : remoteMovies) {
+            if (movie.getMovie_id() == null) {
+                continue;
+            }
+            Movie previous = removed.remove(movie.getMovie_id());
+            if (previous == null) {
+                added++;
+                publishAdded(movie);
+            } else if (!previous.equals(movie)) {
+                updated++;
+                publishUpdated(previous, movie);
+            }
+        }
+        for (Movie movie : removed.values()) {
+            publishDeleted(movie);
+        }
+        log.info("Catalog reconciled : {} added, {} updated, {} deleted", added, updated, removed.size());
+        return new SyncResult(added, updated, removed.size(), true);
+    }
+
+    /**
+     * Probes the ids above the high-water mark, so the cost follows the number of new movies
+     * instead of the catalog size.
+     */
+    public synchronized SyncResult pullNewMovies() {
+        int added = 0;
+        int updated = 0;
+        int misses = 0;
+        long movieId = highWaterMark + 1;
+        while (misses < probeWindow) {
+            Movie movie = retrieveIfPresent(movieId++);
+            if (movie == null || movie.getMovie_id() == null) {
+                misses++;
+                continue;
+            }
+            misses = 0;
+            Movie previous = movies.get(movie.getMovie_id());
+            if (previous == null) {
+                added++;
+                publishAdded(movie);
+            } else if (!previous.equals(movie)) {
+                updated++;
+                publishUpdated(previous, movie);
+            }
+        }
+        return new SyncResult(added, updated, 0, false);
+    }
+
+    /**
+     * Every failure is logged and retried on the next run, as an exception escaping the task,
+     * from the movie service or from a listener, would cancel all the runs after it.
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService executor, long period, TimeUnit unit) {
+        return executor.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (MovieErrorResponse ex) {
+                log.error("Catalog sync failed, retrying on the next run : {} ", ex.getMessage());
+            } catch (RuntimeException ex) {
+                log.error("Catalog sync failed, retrying on the next run", ex);
+            }
+        }, 0, period, unit);
+    }
+
+    public synchronized Collection<Movie> movies() {
+        return new ArrayList<>(movies.values());
+    }
+
+    public synchronized long highWaterMark() {
+        return highWaterMark;
+    }
+
+    private Movie retrieveIfPresent(long movieId) {
+        return Deadline.after(callTimeout).call(() -> probe(movieId));
+    }
+
+    /**
+     * A missing id is a 404 or, should the service answer that way, a success without a body.
+     */
+    private Movie probe(long movieId) {
+        PassthroughResponse response = passthroughClient.retrieveMovieByIdRaw((int) movieId);
+        if (response.getRawStatusCode() == HttpStatus.NOT_FOUND.value()) {
+            response.release();
+            return null;
+        }
+        if (!response.isSuccessful()) {
+            response.release();
+            throw new MovieErrorResponse("Probe of movie " + movieId + " failed with status " + response.getRawStatusCode(), null);
+        }
+        Deadline deadline = Deadline.current();
+        DataBuffer body = DataBufferUtils.join(response.getBody())
+                .timeout(deadline.checkRemaining("probe of movie " + movieId),
+                        Mono.defer(() -> Mono.error(deadline.exceeded("probe of movie " + movieId, null))))
+                .block();
+        if (body == null) {
+            return null;
+        }
+        try (InputStream in = body.asInputStream(true)) {
+            return objectMapper.readValue(in, Movie.class);
+        } catch (IOException ex) {
+            throw new MovieErrorResponse("Probe of movie " + movieId + " returned an unreadable movie", ex);
+        }
+    }
+
+    private void publishAdded(Movie movie) {
+        movies.put(movie.getMovie_id(), movie);
+        highWaterMark = Math.max(highWaterMark, movie.getMovie_id());
+        catalogChecksum += checksum(movie);
+        listeners.forEach(listener -> listener.onMovieAdded(movie));
+    }
+
+    private void publishUpdated(Movie previous, Movie movie) {
+        movies.put(movie.getMovie_id(), movie);
+        catalogChecksum += checksum(movie) - checksum(previous);
+        listeners.forEach(listener -> listener.onMovieUpdated(previous, movie));
+    }
+
+    private void publishDeleted(Movie movie) {
+        movies.remove(movie.getMovie_id());
+        catalogChecksum -= checksum(movie);
+        listeners.forEach(listener -> listener.onMovieDeleted(movie));
+    }
+
+    /**
+     * Order independent so the catalog checksum can be kept up to date by adding and subtracting.
+     * A 64 bit FNV-1a over the fields, as {@link Movie#hashCode()} is 32 bit and collides on
+     * simple edits such as a name going from "Aa" to "BB".
+     */
+    private static long checksum(Movie movie) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, String.valueOf(movie.getMovie_id()));
+        hash = mix(hash, movie.getName());
+        hash = mix(hash, String.valueOf(movie.getYear()));
+        hash = mix(hash, movie.getCast());
+        return mix(hash, String.valueOf(movie.getRelease_date()));
+    }
+
+    private static long mix(long hash, String field) {
+        if (field != null) {
+            for (int i = 0; i < field.length(); i++) {
+                hash = (hash ^ field.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ 0xff) * FNV_PRIME; // field separator, so "ab" + "c" differs from "a" + "bc"
+    }
+}
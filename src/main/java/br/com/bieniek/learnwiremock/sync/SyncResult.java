@@ -0,0 +1,14 @@
+package br.com.bieniek.learnwiremock.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SyncResult {
+
+    private int added;
+    private int updated;
+    private int deleted;
+    private boolean reconciled;
+}
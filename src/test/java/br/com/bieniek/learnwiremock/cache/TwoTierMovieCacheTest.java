@@ -0,0 +1,199 @@
+package br.com.bieniek.learnwiremock.cache;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TwoTierMovieCacheTest {
+
+    TwoTierMovieCache movieCache = new TwoTierMovieCache(1, 64 * 1024);
+    AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void getMovie_hotTierHit() {
+        //given
+        Movie loaded = movieCache.getMovie(1, () -> load(1));
+
+        //when
+        Movie cached = movieCache.getMovie(1, () -> load(1));
+
+        //then
+        assertNotSame(loaded, cached);
+        assertEquals(loaded, cached);
+        assertEquals(1, loads.get());
+        assertEquals(1, movieCache.stats().getHotHits());
+        assertEquals(1, movieCache.stats().getMisses());
+    }
+
+    @Test
+    void getMovie_offHeapTierHitAfterHotEviction() {
+        //given
+        Movie loaded = movieCache.getMovie(1, () -> load(1));
+        movieCache.getMovie(2, () -> load(2));
+
+        //when
+        Movie cached = movieCache.getMovie(1, () -> load(1));
+
+        //then
+        assertNotSame(loaded, cached);
+        assertEquals(loaded, cached);
+        assertEquals(2, loads.get());
+        CacheStats stats = movieCache.stats();
+        assertEquals(1, stats.getOffHeapHits());
+        assertEquals(1.0 / 3, stats.getOffHeapHitRate(), 0.0001);
+        assertEquals(0, stats.getHotHitRate(), 0.0001);
+    }
+
+    @Test
+    void getMoviesByYear() {
+        //given
+        List<Movie> loaded = movieCache.getMoviesByYear(2012, () -> Arrays.asList(load(3), load(4)));
+        movieCache.getMovie(5, () -> load(5));
+
+        //when
+        List<Movie> cached = movieCache.getMoviesByYear(2012, () -> null);
+
+        //then
+        assertEquals(loaded, cached);
+    }
+
+    @Test
+    void get_modifyingAResultLeavesTheCacheUnchanged() {
+        //given
+        TwoTierMovieCache movieCache = new TwoTierMovieCache(4, 64 * 1024);
+        movieCache.getMovie(1, () -> load(1)).setName("changed");
+        List<Movie> movieList = movieCache.getMoviesByYear(2012, () -> new ArrayList<>(Arrays.asList(load(3), load(4))));
+        movieList.get(0).setName("changed");
+        movieList.clear();
+
+        //when
+        Movie cached = movieCache.getMovie(1, () -> null);
+        List<Movie> cachedList = movieCache.getMoviesByYear(2012, () -> null);
+
+        //then
+        assertEquals("Movie 1", cached.getName());
+        assertEquals(2, cachedList.size());
+        assertEquals("Movie 3", cachedList.get(0).getName());
+        assertEquals(2, movieCache.stats().getHotHits());
+    }
+
+    @Test
+    void invalidate_removesFromBothTiers() {
+        //given
+        movieCache.getMovie(1, () -> load(1));
+        movieCache.getMovie(2, () -> load(2));
+        movieCache.getMoviesByYear(2012, () -> Arrays.asList(load(3), load(4)));
+
+        //when
+        movieCache.invalidateMovie(1);
+        movieCache.invalidateAllYears();
+
+        //then
+        assertNull(movieCache.getMovie(1, () -> null));
+        assertNull(movieCache.getMoviesByYear(2012, () -> null));
+        assertEquals(2, movieCache.getMovie(2, () -> null).getMovie_id().intValue());
+    }
+
+    @Test
+    void get_loadRacingAnInvalidationIsNotCached() {
+
+        //when
+        movieCache.getMovie(1, () -> {
+            Movie movie = load(1);
+            movieCache.invalidateMovie(1);
+            return movie;
+        });
+
+        //then
+        assertNull(movieCache.getMovie(1, () -> null));
+    }
+
+    @Test
+    void get_concurrentReadsAndInvalidationsStayConsistent() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> readers = new ArrayList<>();
+
+        //when
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            readers.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    int movieId = (i + offset) % 4;
+                    assertEquals(movieId, movieCache.getMovie(movieId, () -> load(movieId)).getMovie_id().intValue());
+                    if (i % 50 == 0) {
+                        movieCache.invalidateMovie(movieId);
+                    }
+                }
+            }));
+        }
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then
+        CacheStats stats = movieCache.stats();
+        assertEquals(16_000, stats.getHotHits() + stats.getOffHeapHits() + stats.getMisses());
+        assertTrue(stats.getOffHeapHits() > 0);
+    }
+
+    @Test
+    void offHeapStore_evictsOldestWhenWrappingAround() {
+        //given
+        OffHeapStore offHeapStore = new OffHeapStore(10);
+        offHeapStore.put("a", new byte[]{1, 1, 1, 1});
+        offHeapStore.put("b", new byte[]{2, 2, 2, 2});
+
+        //when
+        offHeapStore.put("c", new byte[]{3, 3, 3, 3});
+
+        //then
+        assertNull(offHeapStore.get("a"));
+        assertArrayEquals(new byte[]{2, 2, 2, 2}, offHeapStore.get("b"));
+        assertArrayEquals(new byte[]{3, 3, 3, 3}, offHeapStore.get("c"));
+        assertEquals(1, offHeapStore.evictions());
+        assertEquals(8, offHeapStore.usedBytes());
+
+        //when
+        offHeapStore.put("d", new byte[]{4, 4, 4, 4, 4, 4});
+
+        //then
+        assertNull(offHeapStore.get("b"));
+        assertArrayEquals(new byte[]{3, 3, 3, 3}, offHeapStore.get("c"));
+        assertArrayEquals(new byte[]{4, 4, 4, 4, 4, 4}, offHeapStore.get("d"));
+        assertEquals(10, offHeapStore.usedBytes());
+        assertFalse(offHeapStore.put("e", new byte[11]));
+        assertTrue(offHeapStore.put("d", new byte[]{5}));
+        assertNull(offHeapStore.get("c"));
+        assertArrayEquals(new byte[]{5}, offHeapStore.get("d"));
+        assertEquals(1, offHeapStore.size());
+    }
+
+    private Movie load(int movieId) {
+        loads.incrementAndGet();
+        return Movie.builder()
+                .movie_id((long) movieId)
+                .name("Movie " + movieId)
+                .year(2012)
+                .cast("Christian Bale, Heath Ledger , Michael Caine")
+                .release_date(LocalDate.of(2012, 7, 20))
+                .build();
+    }
+}
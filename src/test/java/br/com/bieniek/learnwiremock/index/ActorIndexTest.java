@@ -0,0 +1,119 @@
+package br.com.bieniek.learnwiremock.index;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActorIndexTest {
+
+    ActorIndex actorIndex;
+
+    @BeforeEach
+    void setUp() {
+        actorIndex = new ActorIndex();
+        actorIndex.indexAll(Arrays.asList(
+                movie(1L, "Batman Begins", "Christian Bale, Katie Holmes , Liam Neeson"),
+                movie(2L, "Dark Knight", "Christian Bale, Heath Ledger , Michael Caine"),
+                movie(4L, "The Avengers", "Robert Downey Jr, Chris Evans , Chris HemsWorth")));
+    }
+
+    @Test
+    void findMoviesByActor() {
+
+        //when
+        List<Movie> movieList = actorIndex.findMoviesByActor("Christian Bale");
+
+        //then
+        assertEquals(2, movieList.size());
+        assertEquals("Batman Begins", movieList.get(0).getName());
+        assertEquals("Dark Knight", movieList.get(1).getName());
+    }
+
+    @Test
+    void findMoviesByActor_ignoresCaseAndSpacing() {
+
+        //when
+        List<Movie> movieList = actorIndex.findMoviesByActor("  chris   hemsworth ");
+
+        //then
+        assertEquals(1, movieList.size());
+        assertEquals(4L, movieList.get(0).getMovie_id().longValue());
+    }
+
+    @Test
+    void findMoviesByActor_unknownActor() {
+        assertTrue(actorIndex.findMoviesByActor("Tom Hanks").isEmpty());
+        assertTrue(actorIndex.findMoviesByActor("").isEmpty());
+    }
+
+    @Test
+    void index_updateReplacesCast() {
+
+        //when
+        actorIndex.index(movie(2L, "Dark Knight", "Tom Hanks"));
+
+        //then
+        assertEquals(1, actorIndex.findMoviesByActor("Christian Bale").size());
+        assertTrue(actorIndex.findMoviesByActor("Heath Ledger").isEmpty());
+        assertEquals(1, actorIndex.findMoviesByActor("Tom Hanks").size());
+        assertEquals(3, actorIndex.movieCount());
+    }
+
+    @Test
+    void remove() {
+
+        //when
+        actorIndex.remove(1L);
+        actorIndex.removeByName("The Avengers");
+
+        //then
+        assertEquals(1, actorIndex.movieCount());
+        assertTrue(actorIndex.findMoviesByActor("Liam Neeson").isEmpty());
+        assertTrue(actorIndex.findMoviesByActor("Chris Evans").isEmpty());
+        assertEquals(1, actorIndex.findMoviesByActor("Christian Bale").size());
+    }
+
+    @Test
+    void index_reusesReleasedSlots() {
+        //given
+        actorIndex.remove(1L);
+
+        //when
+        actorIndex.index(movie(9L, "Batman Returns", "Michael Keaton, Christian Bale"));
+
+        //then
+        List<Movie> movieList = actorIndex.findMoviesByActor("Christian Bale");
+        assertEquals(2, movieList.size());
+        assertEquals("Batman Returns", movieList.get(0).getName());
+    }
+
+    @Test
+    void remove_dropsActorsNoLongerListed() {
+        //given
+        int actorCount = actorIndex.actorCount();
+
+        //when
+        for (long movieId = 100; movieId < 200; movieId++) {
+            actorIndex.index(movie(movieId, "Sequel " + movieId, "Extra " + movieId + ", Christian Bale"));
+            actorIndex.remove(movieId);
+        }
+        actorIndex.remove(4L);
+
+        //then
+        assertEquals(actorCount - 3, actorIndex.actorCount());
+        assertTrue(actorIndex.findMoviesByActor("Chris Evans").isEmpty());
+        assertEquals(2, actorIndex.findMoviesByActor("Christian Bale").size());
+        actorIndex.index(movie(5L, "Iron Man", "Robert Downey Jr"));
+        assertEquals(1, actorIndex.findMoviesByActor("robert downey jr").size());
+    }
+
+    private Movie movie(Long movieId, String name, String cast) {
+        return Movie.builder().movie_id(movieId).name(name).cast(cast).build();
+    }
+}
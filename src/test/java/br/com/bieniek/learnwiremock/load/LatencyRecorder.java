@@ -0,0 +1,72 @@
+package br.com.bieniek.learnwiremock.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects every latency sample of one operation so exact percentiles can be reported.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void record(long nanos, boolean failed) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (failed) {
+            errors++;
+        }
+    }
+
+    synchronized void addTo(LatencyRecorder total) {
+        for (int i = 0; i < count; i++) {
+            total.record(samples[i], false);
+        }
+        synchronized (total) {
+            total.errors += errors;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized int errors() {
+        return errors;
+    }
+
+    synchronized Map<String, Object> toMap() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentile(sorted, 0.50));
+        latency.put("p90", percentile(sorted, 0.90));
+        latency.put("p99", percentile(sorted, 0.99));
+        latency.put("p999", percentile(sorted, 0.999));
+        latency.put("max", count == 0 ? 0 : toMillis(sorted[count - 1]));
+        latency.put("mean", count == 0 ? 0 : toMillis(Arrays.stream(sorted).sum() / count));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", count);
+        stats.put("errors", errors);
+        stats.put("latencyMillis", latency);
+        return stats;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return toMillis(sorted[Math.max(index, 0)]);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.bieniek.learnwiremock.load;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, each one can be overridden with a {@code load.*} system property,
+ * e.g. {@code ./gradlew loadTest -Dload.concurrency=500 -Dload.delay=uniform:10:200}.
+ */
+public class LoadTestConfig {
+
+    final int operations = Integer.getInteger("load.operations", 5_000);
+    final int durationSeconds = Integer.getInteger("load.durationSeconds", 0);
+    final int concurrency = Integer.getInteger("load.concurrency", 200);
+    final int maxConnections = Integer.getInteger("load.maxConnections", 50);
+    final long acquireTimeoutMillis = Long.getLong("load.acquireTimeoutMillis", 2_000L);
+    final int readTimeoutSeconds = Integer.getInteger("load.readTimeoutSeconds", 5);
+    final double faultRate = Double.parseDouble(System.getProperty("load.faultRate", "0.02"));
+    final String delay = System.getProperty("load.delay", "lognormal:20:0.5");
+    final String report = System.getProperty("load.report", "build/reports/load-test/load-test-report.json");
+
+    final String replayLog = System.getProperty("load.replayLog");
+    final double replaySpeed = Double.parseDouble(System.getProperty("load.replaySpeed", "1"));
+    final boolean replayLatency = Boolean.parseBoolean(System.getProperty("load.replayLatency", "true"));
+    final String replayReport = System.getProperty("load.replayReport", "build/reports/load-test/replay-report.json");
+
+    /**
+     * Soak mode runs for {@code durationSeconds} and ignores {@code operations}.
+     */
+    boolean isSoak() {
+        return durationSeconds > 0;
+    }
+
+    /**
+     * Applies the configured delay distribution : {@code none}, {@code fixed:<ms>},
+     * {@code uniform:<minMs>:<maxMs>} or {@code lognormal:<medianMs>:<sigma>}.
+     */
+    ResponseDefinitionBuilder withDelay(ResponseDefinitionBuilder response) {
+        String[] parts = delay.split(":");
+        switch (parts[0]) {
+            case "none":
+                return response;
+            case "fixed":
+                return response.withFixedDelay(Integer.parseInt(parts[1]));
+            case "uniform":
+                return response.withUniformRandomDelay(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            case "lognormal":
+                return response.withLogNormalRandomDelay(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default:
+                throw new IllegalArgumentException("Unknown load.delay distribution : " + delay);
+        }
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("operations", operations);
+        config.put("durationSeconds", durationSeconds);
+        config.put("concurrency", concurrency);
+        config.put("maxConnections", maxConnections);
+        config.put("acquireTimeoutMillis", acquireTimeoutMillis);
+        config.put("readTimeoutSeconds", readTimeoutSeconds);
+        config.put("faultRate", faultRate);
+        config.put("delay", delay);
+        return config;
+    }
+}
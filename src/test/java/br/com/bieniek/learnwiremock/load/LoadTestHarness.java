@@ -0,0 +1,280 @@
+package br.com.bieniek.learnwiremock.load;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.*;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Drives a mix of concurrent operations through a {@link MoviesRestClient} and reports throughput,
+ * latency percentiles and a breakdown of the errors as JSON, so runs can be compared with each other.
+ *
+ * Faults are injected on the id based operations : with probability {@code faultRate} the call goes
+ * to an id whose stub answers 503, or to one whose stub resets the connection.
+ */
+public class LoadTestHarness {
+
+    static final int SERVICE_UNAVAILABLE_IDS = 80_000;
+    static final int CONNECTION_RESET_IDS = 90_000;
+
+    private static final Movie NEW_MOVIE = Movie.builder()
+            .name("Toys Story 4")
+            .year(2019)
+            .cast("Tom Hanks, Tim Allen")
+            .release_date(LocalDate.of(2019, 6, 20))
+            .build();
+
+    enum Operation {
+        RETRIEVE_ALL_MOVIES(5),
+        RETRIEVE_MOVIE_BY_ID(40),
+        RETRIEVE_MOVIE_BY_NAME(10),
+        RETRIEVE_MOVIE_BY_YEAR(15),
+        ADD_NEW_MOVIE(10),
+        UPDATE_MOVIE(10),
+        DELETE_MOVIE_BY_ID(5),
+        DELETE_MOVIE_BY_NAME(5);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(100);
+            for (Operation operation : values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return RETRIEVE_MOVIE_BY_ID;
+        }
+    }
+
+    private final MoviesRestClient moviesRestClient;
+    private final LoadTestConfig config;
+    private final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public LoadTestHarness(MoviesRestClient moviesRestClient, LoadTestConfig config) {
+        this.moviesRestClient = moviesRestClient;
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyRecorder());
+        }
+    }
+
+    /**
+     * Same timeouts as the server fault tests, on a fixed pool so pool exhaustion shows up in the report.
+     */
+    public static WebClient webClient(String baseUrl, LoadTestConfig config) {
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.fixed("load-test", config.maxConnections, config.acquireTimeoutMillis))
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                        .doOnConnected(connection -> connection
+                                .addHandlerLast(new ReadTimeoutHandler(config.readTimeoutSeconds))
+                                .addHandlerLast(new WriteTimeoutHandler(config.readTimeoutSeconds))));
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(baseUrl).build();
+    }
+
+    public static void registerStubs(WireMockServer wireMockServer, LoadTestConfig config) {
+        wireMockServer.stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(config.withDelay(okJson()).withBodyFile("all-movies.json")));
+        wireMockServer.stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(config.withDelay(okJson()).withBodyFile("movie.json")));
+        wireMockServer.stubFor(get(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .willReturn(config.withDelay(okJson()).withBodyFile("avengers.json")));
+        wireMockServer.stubFor(get(urlPathEqualTo(MOVIE_BY_YEAR_QUERY_PARAM_V1))
+                .willReturn(config.withDelay(okJson()).withBodyFile("avengers.json")));
+        wireMockServer.stubFor(post(urlPathEqualTo(ADD_MOVIE_V1))
+                .willReturn(config.withDelay(okJson()).withBodyFile("add-movie.json")));
+        wireMockServer.stubFor(put(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(config.withDelay(okJson()).withBodyFile("movie.json")));
+        wireMockServer.stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(config.withDelay(aResponse())
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                        .withBody("Movie Deleted Successfully")));
+        wireMockServer.stubFor(delete(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .willReturn(config.withDelay(aResponse())
+                        .withStatus(HttpStatus.OK.value())));
+
+        wireMockServer.stubFor(any(urlPathMatching("/movieservice/v1/movie/8[0-9]{4}"))
+                .willReturn(config.withDelay(aResponse())
+                        .withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .withBody("Service Unavailable")));
+        wireMockServer.stubFor(any(urlPathMatching("/movieservice/v1/movie/9[0-9]{4}"))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+    }
+
+    private static ResponseDefinitionBuilder okJson() {
+        return aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    /**
+     * Runs the load, writes the report to {@code config.report} and returns it.
+     */
+    public Map<String, Object> run() throws InterruptedException, IOException {
+        AtomicInteger remaining = new AtomicInteger(config.operations);
+        long start = System.nanoTime();
+        long soakEnd = start + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency);
+        for (int i = 0; i < config.concurrency; i++) {
+            executor.execute(() -> {
+                while (config.isSoak() ? System.nanoTime() < soakEnd : remaining.getAndDecrement() > 0) {
+                    runOnce();
+                }
+            });
+        }
+        executor.shutdown();
+        long timeoutSeconds = config.isSoak() ? config.durationSeconds + 60 : TimeUnit.HOURS.toSeconds(1);
+        if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<String, Object> report = report(elapsedNanos);
+        File reportFile = new File(config.report);
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        return report;
+    }
+
+    private void runOnce() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = Operation.pick(random);
+        int movieId = movieId(random);
+        boolean failed = false;
+        long start = System.nanoTime();
+        try {
+            execute(operation, movieId);
+        } catch (RuntimeException ex) {
+            failed = true;
+            errors.computeIfAbsent(classify(ex), key -> new LongAdder()).increment();
+        }
+        latencies.get(operation).record(System.nanoTime() - start, failed);
+    }
+
+    private int movieId(ThreadLocalRandom random) {
+        if (random.nextDouble() >= config.faultRate) {
+            return 1 + random.nextInt(1000);
+        }
+        return (random.nextBoolean() ? SERVICE_UNAVAILABLE_IDS : CONNECTION_RESET_IDS) + random.nextInt(10_000);
+    }
+
+    private void execute(Operation operation, int movieId) {
+        switch (operation) {
+            case RETRIEVE_ALL_MOVIES:
+                moviesRestClient.retrieveAllMovies();
+                break;
+            case RETRIEVE_MOVIE_BY_ID:
+                moviesRestClient.retrieveMovieById(movieId);
+                break;
+            case RETRIEVE_MOVIE_BY_NAME:
+                moviesRestClient.retrieveMovieByName("Avengers");
+                break;
+            case RETRIEVE_MOVIE_BY_YEAR:
+                moviesRestClient.retrieveMovieByYear(2012);
+                break;
+            case ADD_NEW_MOVIE:
+                moviesRestClient.addNewMovie(NEW_MOVIE);
+                break;
+            case UPDATE_MOVIE:
+                moviesRestClient.updateMovie(movieId, NEW_MOVIE);
+                break;
+            case DELETE_MOVIE_BY_ID:
+                moviesRestClient.deleteMovieById(movieId);
+                break;
+            case DELETE_MOVIE_BY_NAME:
+                moviesRestClient.deleteMovieByName("Toys Story 4");
+                break;
+        }
+    }
+
+    /**
+     * Groups errors by their most specific known cause.
+     */
+    static String classify(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException) {
+                return "HTTP_" + ((WebClientResponseException) cause).getRawStatusCode();
+            }
+            if (cause instanceof ReadTimeoutException) {
+                return "READ_TIMEOUT";
+            }
+            if (cause instanceof TimeoutException && String.valueOf(cause.getMessage()).toLowerCase(Locale.ROOT).contains("acquire")) {
+                return "POOL_EXHAUSTED";
+            }
+            if (cause.getCause() == null) {
+                return cause.getClass().getSimpleName();
+            }
+        }
+        return ex.getClass().getSimpleName();
+    }
+
+    private Map<String, Object> report(long elapsedNanos) {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Object> byOperation = new LinkedHashMap<>();
+        for (Map.Entry<Operation, LatencyRecorder> entry : latencies.entrySet()) {
+            entry.getValue().addTo(total);
+            byOperation.put(entry.getKey().name(), entry.getValue().toMap());
+        }
+        Map<String, Object> errorBreakdown = new TreeMap<>();
+        errors.forEach((error, count) -> errorBreakdown.put(error, count.sum()));
+        double elapsedSeconds = elapsedNanos / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", config.toMap());
+        report.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("operations", total.count());
+        report.put("succeeded", total.count() - total.errors());
+        report.put("failed", total.errors());
+        report.put("throughputPerSecond", Math.round(total.count() / elapsedSeconds * 10) / 10.0);
+        report.put("poolExhausted", errorBreakdown.getOrDefault("POOL_EXHAUSTED", 0L));
+        report.put("total", total.toMap());
+        report.put("byOperation", byOperation);
+        report.put("errors", errorBreakdown);
+        return report;
+    }
+}
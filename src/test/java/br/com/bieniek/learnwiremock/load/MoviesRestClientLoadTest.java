@@ -0,0 +1,63 @@
+package br.com.bieniek.learnwiremock.load;
+
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Run with {@code ./gradlew loadTest}, see {@link LoadTestConfig} for the settings.
+ */
+@Tag("load")
+@ExtendWith(WireMockExtension.class)
+public class MoviesRestClientLoadTest {
+
+    LoadTestConfig config = new LoadTestConfig();
+    LoadTestHarness loadTestHarness;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .containerThreads(config.concurrency + 20)
+            .asynchronousResponseEnabled(true)
+            .asynchronousResponseThreads(config.concurrency);
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        LoadTestHarness.registerStubs(wireMockServer, config);
+        loadTestHarness = new LoadTestHarness(
+                new MoviesRestClientImpl(LoadTestHarness.webClient(baseUrl, config)), config);
+    }
+
+    @Test
+    void mixedOperations() throws Exception {
+
+        //when
+        Map<String, Object> report = loadTestHarness.run();
+        System.out.println("load test report : " + report);
+
+        //then
+        assertTrue(new File(config.report).isFile());
+        if (!config.isSoak()) {
+            assertEquals(config.operations, report.get("operations"));
+        }
+        assertTrue((int) report.get("succeeded") > 0);
+    }
+}
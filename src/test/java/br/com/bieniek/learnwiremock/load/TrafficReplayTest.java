@@ -0,0 +1,62 @@
+package br.com.bieniek.learnwiremock.load;
+
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays a recorded traffic log, e.g.
+ * {@code ./gradlew loadTest --tests '*TrafficReplayTest' -Dload.replayLog=movies.trafficlog -Dload.replaySpeed=2}.
+ */
+@Tag("load")
+@ExtendWith(WireMockExtension.class)
+public class TrafficReplayTest {
+
+    LoadTestConfig config = new LoadTestConfig();
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .containerThreads(config.concurrency + 20)
+            .asynchronousResponseEnabled(true)
+            .asynchronousResponseThreads(config.concurrency);
+
+    @Test
+    void replayRecordedTraffic() throws Exception {
+        assumeTrue(config.replayLog != null, "load.replayLog is not set");
+
+        //given
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        TrafficReplayer trafficReplayer = TrafficReplayer.fromLog(Paths.get(config.replayLog));
+        trafficReplayer.registerStubs(wireMockServer, config.replayLatency);
+
+        //when
+        Map<String, Object> report = trafficReplayer.replay(
+                new MoviesRestClientImpl(LoadTestHarness.webClient(baseUrl, config)), config.replaySpeed, config.concurrency);
+        File reportFile = new File(config.replayReport);
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        System.out.println("replay report : " + report);
+
+        //then
+        assertTrue((int) report.get("operations") > 0);
+    }
+}
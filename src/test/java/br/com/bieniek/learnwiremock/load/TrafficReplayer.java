@@ -0,0 +1,220 @@
+package br.com.bieniek.learnwiremock.load;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.recording.RecordedCall;
+import br.com.bieniek.learnwiremock.recording.TrafficLogReader;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.Fault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.*;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Re-drives calls recorded by a {@link br.com.bieniek.learnwiremock.recording.TrafficRecorder}
+ * against WireMock stubs built from the recorded responses.
+ *
+ * Each call starts at its recorded offset from the first call divided by {@code speed}, so
+ * {@code 1} keeps the original pacing, {@code 10} compresses it tenfold and {@code 0} sends every
+ * call as soon as a thread is free. Calls recorded without a response are stubbed as connection resets.
+ */
+public class TrafficReplayer {
+
+    private static final String MOVIE_BY_ID_V1 = MOVIE_BY_ID_PATH_PARAM_V1.replace("{id}", "");
+
+    private final List<RecordedCall> calls;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Map<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public TrafficReplayer(List<RecordedCall> calls) {
+        this.calls = new ArrayList<>(calls);
+        this.calls.sort(Comparator.comparingLong(RecordedCall::getStartMicros));
+    }
+
+    public static TrafficReplayer fromLog(Path log) throws IOException {
+        return new TrafficReplayer(TrafficLogReader.read(log));
+    }
+
+    /**
+     * When the same request was recorded more than once the latest response is served, except for
+     * adds and updates which are also matched on their body.
+     *
+     * @param recordedLatency delays each stub by the duration recorded on the client
+     */
+    public void registerStubs(WireMockServer wireMockServer, boolean recordedLatency) {
+        for (RecordedCall call : calls) {
+            wireMockServer.stubFor(request(call).willReturn(response(call, recordedLatency)));
+        }
+    }
+
+    /**
+     * Replays every call and returns a report in the same shape as the load test one.
+     */
+    public Map<String, Object> replay(MoviesRestClient moviesRestClient, double speed, int threads) throws InterruptedException {
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(calls.size());
+        AtomicLong maxStartLagNanos = new AtomicLong();
+        long firstStartMicros = calls.isEmpty() ? 0 : calls.get(0).getStartMicros();
+        long start = System.nanoTime();
+
+        for (RecordedCall call : calls) {
+            long offsetNanos = speed <= 0 ? 0 : (long) (TimeUnit.MICROSECONDS.toNanos(call.getStartMicros() - firstStartMicros) / speed);
+            executor.schedule(() -> {
+                try {
+                    maxStartLagNanos.accumulateAndGet(System.nanoTime() - start - offsetNanos, Math::max);
+                    replayOnce(moviesRestClient, call);
+                } finally {
+                    done.countDown();
+                }
+            }, offsetNanos, TimeUnit.NANOSECONDS);
+        }
+        done.await();
+        executor.shutdown();
+        return report(System.nanoTime() - start, speed, TimeUnit.NANOSECONDS.toMillis(maxStartLagNanos.get()));
+    }
+
+    private MappingBuilder request(RecordedCall call) {
+        String argument = call.getArgument();
+        switch (call.getOperation()) {
+            case "retrieveAllMovies":
+                return get(urlPathEqualTo(GET_ALL_MOVIES_V1));
+            case "retrieveMovieById":
+                return get(urlPathEqualTo(MOVIE_BY_ID_V1 + argument));
+            case "retrieveMovieByName":
+                return get(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1)).withQueryParam("movie_name", equalTo(argument));
+            case "retrieveMovieByYear":
+                return get(urlPathEqualTo(MOVIE_BY_YEAR_QUERY_PARAM_V1)).withQueryParam("year", equalTo(argument));
+            case "addNewMovie":
+                return post(urlPathEqualTo(ADD_MOVIE_V1)).withRequestBody(equalToJson(utf8(call.getRequestBody()), true, true));
+            case "updateMovie":
+                return put(urlPathEqualTo(MOVIE_BY_ID_V1 + argument)).withRequestBody(equalToJson(utf8(call.getRequestBody()), true, true));
+            case "deleteMovieById":
+                return delete(urlPathEqualTo(MOVIE_BY_ID_V1 + argument));
+            case "deleteMovieByName":
+                return delete(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1)).withQueryParam("movie_name", equalTo(argument));
+            default:
+                throw new IllegalArgumentException("Unknown recorded operation : " + call.getOperation());
+        }
+    }
+
+    private ResponseDefinitionBuilder response(RecordedCall call, boolean recordedLatency) {
+        if (call.getStatus() == 0) {
+            return aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER);
+        }
+        ResponseDefinitionBuilder response = aResponse()
+                .withStatus(call.getStatus())
+                .withHeader(HttpHeaders.CONTENT_TYPE, isJson(call.getResponseBody()) ? MediaType.APPLICATION_JSON_VALUE : MediaType.TEXT_PLAIN_VALUE)
+                .withBody(call.getResponseBody());
+        return recordedLatency ? response.withFixedDelay((int) TimeUnit.MICROSECONDS.toMillis(call.getDurationMicros())) : response;
+    }
+
+    private void replayOnce(MoviesRestClient moviesRestClient, RecordedCall call) {
+        boolean failed = false;
+        long start = System.nanoTime();
+        try {
+            invoke(moviesRestClient, call);
+        } catch (RuntimeException ex) {
+            failed = true;
+            errors.computeIfAbsent(LoadTestHarness.classify(ex), key -> new LongAdder()).increment();
+        }
+        latencies.computeIfAbsent(call.getOperation(), key -> new LatencyRecorder()).record(System.nanoTime() - start, failed);
+    }
+
+    private void invoke(MoviesRestClient moviesRestClient, RecordedCall call) {
+        String argument = call.getArgument();
+        switch (call.getOperation()) {
+            case "retrieveAllMovies":
+                moviesRestClient.retrieveAllMovies();
+                break;
+            case "retrieveMovieById":
+                moviesRestClient.retrieveMovieById(Integer.valueOf(argument));
+                break;
+            case "retrieveMovieByName":
+                moviesRestClient.retrieveMovieByName(argument);
+                break;
+            case "retrieveMovieByYear":
+                moviesRestClient.retrieveMovieByYear(Integer.valueOf(argument));
+                break;
+            case "addNewMovie":
+                moviesRestClient.addNewMovie(movie(call.getRequestBody()));
+                break;
+            case "updateMovie":
+                moviesRestClient.updateMovie(Integer.valueOf(argument), movie(call.getRequestBody()));
+                break;
+            case "deleteMovieById":
+                moviesRestClient.deleteMovieById(Integer.valueOf(argument));
+                break;
+            case "deleteMovieByName":
+                moviesRestClient.deleteMovieByName(argument);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown recorded operation : " + call.getOperation());
+        }
+    }
+
+    private Movie movie(byte[] json) {
+        try {
+            return objectMapper.readValue(json, Movie.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static boolean isJson(byte[] body) {
+        return body.length > 0 && (body[0] == '{' || body[0] == '[');
+    }
+
+    private static String utf8(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, Object> report(long elapsedNanos, double speed, long maxStartLagMillis) {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Object> byOperation = new TreeMap<>();
+        latencies.forEach((operation, recorder) -> {
+            recorder.addTo(total);
+            byOperation.put(operation, recorder.toMap());
+        });
+        Map<String, Object> errorBreakdown = new TreeMap<>();
+        errors.forEach((error, count) -> errorBreakdown.put(error, count.sum()));
+        long recordedMicros = calls.isEmpty() ? 0 : calls.get(calls.size() - 1).getStartMicros() - calls.get(0).getStartMicros();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("speed", speed);
+        report.put("recordedSpanMillis", TimeUnit.MICROSECONDS.toMillis(recordedMicros));
+        report.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("maxStartLagMillis", maxStartLagMillis);
+        report.put("operations", total.count());
+        report.put("succeeded", total.count() - total.errors());
+        report.put("failed", total.errors());
+        report.put("total", total.toMap());
+        report.put("byOperation", byOperation);
+        report.put("errors", errorBreakdown);
+        return report;
+    }
+}
@@ -0,0 +1,186 @@
+package br.com.bieniek.learnwiremock.recording;
+
+import br.com.bieniek.learnwiremock.constants.MovieWireFormat;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.load.TrafficReplayer;
+import br.com.bieniek.learnwiremock.service.MoviesRestClient;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.*;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class TrafficRecorderTest {
+
+    WebClient webClient;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        webClient = WebClient.create(String.format("http://localhost:%s/", wireMockServer.port()));
+
+        stubFor(get(urlPathEqualTo(MOVIE_BY_ID_PATH_PARAM_V1.replace("{id}", "1")))
+                .willReturn(jsonResponse().withBodyFile("movie.json")));
+        stubFor(get(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .willReturn(jsonResponse().withBodyFile("avengers.json")));
+        stubFor(post(urlPathEqualTo(ADD_MOVIE_V1))
+                .willReturn(jsonResponse().withBodyFile("add-movie.json")));
+        stubFor(get(urlPathEqualTo(MOVIE_BY_ID_PATH_PARAM_V1.replace("{id}", "100")))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.NOT_FOUND.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody("{\"status\":404,\"error\":\"Not Found\"}")));
+    }
+
+    @Test
+    void record_writesEveryCallToTheLog() throws Exception {
+        //given
+        Path log = tempDir.resolve("movies.trafficlog");
+
+        //when
+        record(log);
+
+        //then
+        List<RecordedCall> calls = TrafficLogReader.read(log);
+        assertEquals(4, calls.size());
+        assertEquals("retrieveMovieById", calls.get(0).getOperation());
+        assertEquals("1", calls.get(0).getArgument());
+        assertEquals(200, calls.get(0).getStatus());
+        assertTrue(calls.get(0).getResponseSize() > 0);
+        assertTrue(calls.get(0).getDurationMicros() > 0);
+        assertEquals("Avengers", calls.get(1).getArgument());
+        assertTrue(new String(calls.get(2).getRequestBody(), StandardCharsets.UTF_8).contains("\"name\":\"Toys Story 4\""));
+        assertEquals(404, calls.get(3).getStatus());
+        assertTrue(calls.get(1).getStartMicros() >= calls.get(0).getStartMicros());
+    }
+
+    @Test
+    void read_ignoresTruncatedLastRecordAndAppendsToExistingLog() throws Exception {
+        //given
+        Path log = tempDir.resolve("movies.trafficlog");
+        record(log);
+        record(log);
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, new byte[]{bytes[8], bytes[9], bytes[10]}, StandardOpenOption.APPEND);
+
+        //when
+        List<RecordedCall> calls = TrafficLogReader.read(log);
+
+        //then
+        assertEquals(8, calls.size());
+    }
+
+    @Test
+    void replay_redrivesRecordedCallsAgainstStubsBuiltFromTheLog() throws Exception {
+        //given
+        Path log = tempDir.resolve("movies.trafficlog");
+        record(log);
+        wireMockServer.resetAll();
+        TrafficReplayer trafficReplayer = TrafficReplayer.fromLog(log);
+        trafficReplayer.registerStubs(wireMockServer, false);
+
+        //when
+        Map<String, Object> report = trafficReplayer.replay(new MoviesRestClientImpl(webClient), 0, 2);
+
+        //then
+        assertEquals(4, report.get("operations"));
+        assertEquals(1, report.get("failed"));
+        verify(getRequestedFor(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1)).withQueryParam("movie_name", equalTo("Avengers")));
+        verify(postRequestedFor(urlPathEqualTo(ADD_MOVIE_V1)).withRequestBody(matchingJsonPath("$.name", equalTo("Toys Story 4"))));
+    }
+
+    @Test
+    void close_releasesTheLogAfterAWriteFailure() throws Exception {
+        //given
+        Path full = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(full) && Files.isDirectory(Paths.get("/proc/self/fd")));
+        long openBefore = openHandles(full);
+        TrafficRecorder trafficRecorder = new TrafficRecorder(full);
+        trafficRecorder.record("retrieveMovieById", 1, null, System.nanoTime(), 200, null);
+
+        //when
+        assertThrows(IOException.class, trafficRecorder::close);
+        trafficRecorder.record("retrieveMovieById", 2, null, System.nanoTime(), 200, null);
+
+        //then
+        assertEquals(openBefore, openHandles(full));
+        assertEquals(0, trafficRecorder.recorded());
+        assertEquals(2, trafficRecorder.recorded() + trafficRecorder.dropped());
+        trafficRecorder.close();
+    }
+
+    private void record(Path log) throws Exception {
+        try (TrafficRecorder trafficRecorder = new TrafficRecorder(log)) {
+            MoviesRestClient moviesRestClient = new MoviesRestClientImpl(webClient, MovieWireFormat.JSON, trafficRecorder);
+            moviesRestClient.retrieveMovieById(1);
+            moviesRestClient.retrieveMovieByName("Avengers");
+            moviesRestClient.addNewMovie(Movie.builder()
+                    .name("Toys Story 4")
+                    .year(2019)
+                    .cast("Tom Hanks, Tim Allen")
+                    .release_date(LocalDate.of(2019, 6, 20))
+                    .build());
+            assertThrows(MovieErrorResponse.class, () -> moviesRestClient.retrieveMovieById(100));
+        }
+    }
+
+    private static long openHandles(Path file) throws IOException {
+        try (Stream<Path> handles = Files.list(Paths.get("/proc/self/fd"))) {
+            return handles.filter(handle -> {
+                try {
+                    return Files.readSymbolicLink(handle).equals(file);
+                } catch (IOException ex) {
+                    return false;
+                }
+            }).count();
+        }
+    }
+
+    private static ResponseDefinitionBuilder jsonResponse() {
+        return aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+    }
+}
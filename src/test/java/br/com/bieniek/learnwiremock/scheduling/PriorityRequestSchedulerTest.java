@@ -0,0 +1,123 @@
+package br.com.bieniek.learnwiremock.scheduling;
+
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
+import br.com.bieniek.learnwiremock.service.Deadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityRequestSchedulerTest {
+
+    PriorityRequestScheduler requestScheduler = new PriorityRequestScheduler(1);
+    ExecutorService executor = Executors.newCachedThreadPool();
+    CountDownLatch holding = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_interactiveOvertakesQueuedBatch() throws Exception {
+        //given
+        holdThePermit();
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(submit(RequestPriority.BATCH, "batch-" + i, admitted));
+            awaitWaiting(RequestPriority.BATCH, i + 1);
+        }
+        for (int i = 0; i < 2; i++) {
+            calls.add(submit(RequestPriority.INTERACTIVE, "interactive-" + i, admitted));
+            awaitWaiting(RequestPriority.INTERACTIVE, i + 1);
+        }
+
+        //when
+        release.countDown();
+        for (Future<?> call : calls) {
+            call.get(5, TimeUnit.SECONDS);
+        }
+
+        //then
+        assertEquals(Arrays.asList("interactive-0", "interactive-1", "batch-0", "batch-1", "batch-2", "batch-3"), admitted);
+        Map<RequestPriority, QueueTimeStats> stats = requestScheduler.stats();
+        assertEquals(2, stats.get(RequestPriority.INTERACTIVE).getQueuedRequests());
+        assertEquals(5, stats.get(RequestPriority.BATCH).getRequests());
+        assertEquals(0, stats.get(RequestPriority.BATCH).getWaiting());
+        assertTrue(stats.get(RequestPriority.BATCH).getMaxQueueMillis() > 0);
+    }
+
+    @Test
+    void execute_withoutContentionGoesStraightThrough() {
+
+        //when
+        String result = requestScheduler.execute(() -> "done");
+
+        //then
+        QueueTimeStats stats = requestScheduler.stats().get(RequestPriority.INTERACTIVE);
+        assertEquals("done", result);
+        assertEquals(1, stats.getRequests());
+        assertEquals(0, stats.getQueuedRequests());
+    }
+
+    @Test
+    void execute_queueWaitCountsAgainstDeadline() throws Exception {
+        //given
+        holdThePermit();
+
+        //when
+        DeadlineExceededException exception = assertThrows(DeadlineExceededException.class, () ->
+                Deadline.after(Duration.ofMillis(200)).call(() -> requestScheduler.execute(() -> "never")));
+
+        //then
+        assertTrue(exception.getMessage().contains("queue for INTERACTIVE permit"));
+        assertEquals(0, requestScheduler.stats().get(RequestPriority.INTERACTIVE).getWaiting());
+        release.countDown();
+        assertEquals("next", requestScheduler.execute(() -> "next"));
+    }
+
+    private void holdThePermit() throws InterruptedException {
+        executor.execute(() -> RequestPriority.BATCH.run(() -> requestScheduler.execute(() -> {
+            holding.countDown();
+            awaitRelease();
+            return null;
+        })));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+    }
+
+    private Future<?> submit(RequestPriority priority, String name, List<String> admitted) {
+        return executor.submit(() -> priority.run(() -> requestScheduler.execute(() -> admitted.add(name))));
+    }
+
+    private void awaitWaiting(RequestPriority priority, int waiting) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requestScheduler.stats().get(priority).getWaiting() < waiting && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.Fault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.MOVIE_BY_NAME_QUERY_PARAM_V1;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class BulkDeleteTest {
+
+    MoviesRestClient moviesRestClient;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        moviesRestClient = new MoviesRestClientImpl(WebClient.create(baseUrl));
+
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                        .withBody("Movie Deleted Successfully")));
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/4[0-9]"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.NOT_FOUND.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("404-movieId.json")));
+        stubFor(delete(urlPathEqualTo("/movieservice/v1/movie/500"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                        .withBody("Server Error")));
+        stubFor(delete(urlPathEqualTo("/movieservice/v1/movie/999"))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+    }
+
+    @Test
+    void deleteMoviesById() {
+        //given
+        List<Integer> movieIds = Arrays.asList(1, 2, 3, 41, 42, 500, 999);
+
+        //when
+        BulkDeleteResult result = moviesRestClient.deleteMoviesById(movieIds, BulkDeleteOptions.defaults());
+
+        //then
+        assertEquals(3, result.getDeleted());
+        assertEquals(2, result.getMissing());
+        assertEquals(2, result.getFailed());
+        BulkDeleteResult.Failure serverError = result.getFailures().stream()
+                .filter(failure -> failure.getKey().equals("500")).findFirst().get();
+        assertEquals(500, serverError.getStatus());
+        assertEquals("Server Error", serverError.getMessage());
+        assertTrue(result.getFailures().stream().anyMatch(failure -> failure.getKey().equals("999") && failure.getStatus() == 0));
+        verify(6, deleteRequestedFor(urlPathMatching("/movieservice/v1/movie/(1|2|3|41|42|500)")));
+    }
+
+    @Test
+    void deleteMoviesById_notFoundAsFailure() {
+        //given
+        BulkDeleteOptions bulkDeleteOptions = BulkDeleteOptions.builder()
+                .treatNotFoundAsSuccess(false)
+                .build();
+
+        //when
+        BulkDeleteResult result = moviesRestClient.deleteMoviesById(Arrays.asList(1, 41), bulkDeleteOptions);
+
+        //then
+        assertEquals(1, result.getDeleted());
+        assertEquals(0, result.getMissing());
+        assertEquals(404, result.getFailures().get(0).getStatus());
+    }
+
+    @Test
+    void deleteMovieById_settlesOneKey() {
+
+        //when
+        BulkDeleteResult.Outcome deleted = moviesRestClient.deleteMovieById(1, BulkDeleteOptions.defaults());
+        BulkDeleteResult.Outcome serverError = moviesRestClient.deleteMovieById(500, BulkDeleteOptions.defaults());
+
+        //then
+        assertEquals(BulkDeleteResult.Outcome.Kind.DELETED, deleted.getKind());
+        assertTrue(serverError.isFailed());
+        assertEquals(500, serverError.getFailure().getStatus());
+        assertEquals("500", serverError.getFailure().getKey());
+    }
+
+    @Test
+    void deleteMoviesByName() {
+        //given
+        stubFor(delete(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .withQueryParam("movie_name", equalTo("The Dark Knight Rises"))
+                .willReturn(aResponse().withStatus(HttpStatus.NOT_FOUND.value())));
+        stubFor(delete(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .withQueryParam("movie_name", equalTo("Toys Story 4"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value())));
+
+        //when
+        BulkDeleteResult result = moviesRestClient.deleteMoviesByName(
+                Arrays.asList("Toys Story 4", "The Dark Knight Rises"), BulkDeleteOptions.defaults());
+
+        //then
+        assertEquals(1, result.getDeleted());
+        assertEquals(1, result.getMissing());
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    void deleteMoviesByName_nullNameIsSentAndSettledOnItsOwn() {
+        //given
+        stubFor(delete(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .withQueryParam("movie_name", equalTo("Toys Story 4"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value())));
+        stubFor(delete(urlEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1 + "?movie_name"))
+                .willReturn(aResponse().withStatus(HttpStatus.BAD_REQUEST.value()).withBody("Bad Request")));
+
+        //when
+        BulkDeleteResult result = moviesRestClient.deleteMoviesByName(
+                Arrays.asList("Toys Story 4", null), BulkDeleteOptions.defaults());
+
+        //then
+        assertEquals(1, result.getDeleted());
+        assertEquals(1, result.getFailed());
+        assertEquals("null", result.getFailures().get(0).getKey());
+        assertEquals(400, result.getFailures().get(0).getStatus());
+    }
+
+    @Test
+    void deleteMoviesById_boundedByDeadline() {
+        //given
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value()).withFixedDelay(2000)));
+        stubFor(delete(urlPathEqualTo("/movieservice/v1/movie/1"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value())));
+
+        //when
+        long start = System.nanoTime();
+        BulkDeleteResult result = Deadline.after(Duration.ofMillis(500)).call(() ->
+                moviesRestClient.deleteMoviesById(Arrays.asList(1, 2, 3), BulkDeleteOptions.builder().concurrency(2).build()));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        //then
+        assertTrue(elapsedMillis < 1500, "took " + elapsedMillis + " ms");
+        assertEquals(1, result.getDeleted());
+        assertEquals(2, result.getFailed());
+        assertEquals(0, result.getMissing());
+        assertEquals(Arrays.asList("2", "3"), result.getFailures().stream()
+                .map(BulkDeleteResult.Failure::getKey).sorted().collect(Collectors.toList()));
+        result.getFailures().forEach(failure -> {
+            assertEquals(0, failure.getStatus());
+            assertEquals("deadline exceeded", failure.getMessage());
+        });
+    }
+
+    @Test
+    void deleteMoviesById_settlesEveryKey() {
+        //given
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.NOT_FOUND.value())
+                        .withBody("Movie Not Found")));
+        List<Integer> movieIds = IntStream.rangeClosed(1, 32).boxed().collect(Collectors.toList());
+
+        //when
+        BulkDeleteResult result = moviesRestClient.deleteMoviesById(movieIds, BulkDeleteOptions.builder().concurrency(4).build());
+
+        //then
+        assertEquals(32, result.getMissing());
+        assertEquals(0, result.getDeleted() + result.getFailed());
+        verify(32, deleteRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+")));
+    }
+
+    @Test
+    @Tag("load")
+    void deleteMoviesById_pipelinedVersusSequential() {
+        //given
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.NOT_FOUND.value())
+                        .withBody("Movie Not Found")
+                        .withFixedDelay(50)));
+        List<Integer> movieIds = IntStream.rangeClosed(1, 32).boxed().collect(Collectors.toList());
+
+        //when
+        long start = System.nanoTime();
+        for (Integer movieId : movieIds) {
+            try {
+                moviesRestClient.deleteMovieById(movieId);
+            } catch (MovieErrorResponse ex) {
+                // already gone
+            }
+        }
+        long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        BulkDeleteResult result = moviesRestClient.deleteMoviesById(movieIds, BulkDeleteOptions.defaults());
+        long pipelinedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(String.format("32 deletes : sequential=%d ms, pipelined=%d ms", sequentialMillis, pipelinedMillis));
+
+        //then
+        assertEquals(32, result.getMissing());
+        assertTrue(pipelinedMillis * 4 < sequentialMillis);
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class DeadlineTest {
+
+    MoviesRestClient moviesRestClient;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        moviesRestClient = new MoviesRestClientImpl(WebClient.create(baseUrl));
+
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("movie.json")
+                        .withFixedDelay(2000)));
+    }
+
+    @Test
+    void expiredDeadlineFailsBeforeAnyRequest() {
+        //given
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        //then
+        assertThrows(DeadlineExceededException.class, () -> deadline.call(() -> moviesRestClient.retrieveMovieById(1)));
+        verify(exactly(0), getRequestedFor(anyUrl()));
+    }
+
+    @Test
+    void slowResponseIsCancelledAtTheDeadline() {
+        //given
+        long start = System.nanoTime();
+
+        //when
+        DeadlineExceededException ex = assertThrows(DeadlineExceededException.class,
+                () -> Deadline.after(Duration.ofMillis(200)).call(() -> moviesRestClient.retrieveMovieById(1)));
+
+        //then
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertTrue(elapsedMillis < 1500, "returned after " + elapsedMillis + "ms");
+        assertEquals("Deadline exceeded in retrieveMovieById", ex.getMessage());
+    }
+
+    @Test
+    void nestedDeadlineDoesNotExtendEnclosingOne() {
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(Duration.ofMillis(200)).run(
+                () -> Deadline.after(Duration.ofSeconds(10)).call(() -> moviesRestClient.retrieveMovieById(1))));
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    void callWithinDeadline() {
+
+        //when
+        Movie movie = Deadline.after(Duration.ofSeconds(5)).call(() -> moviesRestClient.retrieveMovieById(1));
+
+        //then
+        assertEquals("Batman Begins", movie.getName());
+    }
+}
@@ -0,0 +1,182 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.index.ActorIndex;
+import br.com.bieniek.learnwiremock.service.impl.IndexedMoviesRestClient;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.*;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class IndexedMoviesRestClientTest {
+
+    IndexedMoviesRestClient moviesRestClient;
+    ActorIndex actorIndex = new ActorIndex();
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        moviesRestClient = new IndexedMoviesRestClient(new MoviesRestClientImpl(WebClient.create(baseUrl)), actorIndex);
+
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("movie.json")));
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                        .withBody("Movie Deleted Successfully")));
+    }
+
+    @Test
+    void retrieveAllMovies_indexesEveryMovie() {
+        //given
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("all-movies.json")));
+
+        //when
+        List<Movie> movieList = moviesRestClient.retrieveAllMovies();
+
+        //then
+        assertEquals(movieList.size(), actorIndex.movieCount());
+        assertEquals("Batman Begins", moviesRestClient.findMoviesByActor("liam neeson").get(0).getName());
+    }
+
+    @Test
+    void addNewMovie_indexesTheAddedMovie() {
+        //given
+        stubFor(post(urlPathEqualTo(ADD_MOVIE_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.CREATED.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("add-movie.json")));
+
+        //when
+        moviesRestClient.addNewMovie(toyStory4());
+
+        //then
+        List<Movie> movieList = moviesRestClient.findMoviesByActor("Tom Hanks");
+        assertEquals(1, movieList.size());
+        assertEquals(11L, movieList.get(0).getMovie_id().longValue());
+    }
+
+    @Test
+    void updateMovie_replacesTheIndexedCast() {
+        //given
+        moviesRestClient.retrieveMovieById(1);
+        stubFor(put(urlPathEqualTo("/movieservice/v1/movie/1"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody("{\"movie_id\": 1, \"name\": \"Batman Begins\", \"year\": 2005, "
+                                + "\"cast\": \"Christian Bale, Michael Caine\", \"release_date\": \"2005-06-15\"}")));
+
+        //when
+        moviesRestClient.updateMovie(1, Movie.builder().cast("Michael Caine").build());
+
+        //then
+        assertTrue(moviesRestClient.findMoviesByActor("Liam Neeson").isEmpty());
+        assertEquals(1, moviesRestClient.findMoviesByActor("Michael Caine").size());
+        assertEquals(1, actorIndex.movieCount());
+    }
+
+    @Test
+    void deleteMovieById_removesTheMovie() {
+        //given
+        moviesRestClient.retrieveMovieById(1);
+
+        //when
+        moviesRestClient.deleteMovieById(1);
+
+        //then
+        assertTrue(moviesRestClient.findMoviesByActor("Christian Bale").isEmpty());
+        assertEquals(0, actorIndex.movieCount());
+        assertEquals(0, actorIndex.actorCount());
+    }
+
+    @Test
+    void deleteMovieByName_removesTheMovie() {
+        //given
+        moviesRestClient.retrieveMovieById(1);
+        stubFor(delete(urlPathEqualTo(MOVIE_BY_NAME_QUERY_PARAM_V1))
+                .withQueryParam("movie_name", equalTo("Batman Begins"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value())));
+
+        //when
+        moviesRestClient.deleteMovieByName("Batman Begins");
+
+        //then
+        assertTrue(moviesRestClient.findMoviesByActor("Katie Holmes").isEmpty());
+        assertEquals(0, actorIndex.movieCount());
+    }
+
+    @Test
+    void deleteMoviesById_keepsTheMoviesNotDeletedBeforeTheDeadline() {
+        //given
+        moviesRestClient.retrieveMovieById(1);
+        stubFor(post(urlPathEqualTo(ADD_MOVIE_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.CREATED.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("add-movie.json")));
+        moviesRestClient.addNewMovie(toyStory4());
+        stubFor(delete(urlPathEqualTo("/movieservice/v1/movie/11"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value()).withFixedDelay(2000)));
+
+        //when
+        BulkDeleteResult result = Deadline.after(Duration.ofMillis(500)).call(() ->
+                moviesRestClient.deleteMoviesById(Arrays.asList(1, 11), BulkDeleteOptions.defaults()));
+
+        //then
+        assertEquals(1, result.getDeleted());
+        assertEquals("11", result.getFailures().get(0).getKey());
+        assertTrue(moviesRestClient.findMoviesByActor("Christian Bale").isEmpty());
+        assertEquals(1, moviesRestClient.findMoviesByActor("Tom Hanks").size());
+    }
+
+    private Movie toyStory4() {
+        return Movie.builder()
+                .name("Toys Story 4")
+                .year(2019)
+                .cast("Tom Hanks, Tim Allen")
+                .release_date(LocalDate.of(2019, 6, 20))
+                .build();
+    }
+}
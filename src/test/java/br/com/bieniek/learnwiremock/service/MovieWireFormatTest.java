@@ -0,0 +1,162 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.constants.MovieWireFormat;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import br.com.bieniek.learnwiremock.stub.SmileNegotiatingTransformer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.GET_ALL_MOVIES_V1;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class MovieWireFormatTest {
+
+    private static final TypeReference<List<Movie>> MOVIE_LIST = new TypeReference<List<Movie>>() {
+    };
+
+    private static final int ROUNDS = 9;
+
+    MoviesRestClient moviesRestClient;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true))
+            .extensions(new SmileNegotiatingTransformer());
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        moviesRestClient = new MoviesRestClientImpl(WebClient.create(baseUrl), MovieWireFormat.SMILE);
+    }
+
+    @Test
+    void retrieveAllMovies_smile() {
+        //given
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("all-movies.json")
+                        .withTransformers(SmileNegotiatingTransformer.NAME)));
+
+        //when
+        List<Movie> movieList = moviesRestClient.retrieveAllMovies();
+
+        //then
+        assertEquals(10, movieList.size());
+        assertEquals("Batman Begins", movieList.get(0).getName());
+        assertEquals(LocalDate.of(2005, 6, 15), movieList.get(0).getRelease_date());
+        verify(getRequestedFor(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .withHeader(HttpHeaders.ACCEPT, equalTo(MovieWireFormat.SMILE.getAcceptHeader())));
+    }
+
+    @Test
+    void retrieveMovieById_fallsBackToJson() {
+        //given
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("movie.json")));
+
+        //when
+        Movie movie = moviesRestClient.retrieveMovieById(1);
+
+        //then
+        assertEquals("Batman Begins", movie.getName());
+    }
+
+    @Test
+    void smileDecodesToTheSameMoviesInFewerBytes() throws Exception {
+        //given
+        byte[] json = Files.readAllBytes(Paths.get("src/test/resources/__files/all-movies.json"));
+
+        //when
+        byte[] smile = new SmileNegotiatingTransformer().toSmile(json);
+
+        //then
+        List<Movie> fromJson = Jackson2ObjectMapperBuilder.json().build().readValue(json, MOVIE_LIST);
+        List<Movie> fromSmile = Jackson2ObjectMapperBuilder.smile().build().readValue(smile, MOVIE_LIST);
+        assertEquals(fromJson, fromSmile);
+        assertTrue(smile.length < json.length);
+    }
+
+    /**
+     * Decode speed is reported as the median of interleaved rounds after a warm up, and not asserted
+     * as it depends on the machine.
+     */
+    @Test
+    @Tag("load")
+    void decodeBenchmark() throws Exception {
+        //given
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        byte[] json = Files.readAllBytes(Paths.get("src/test/resources/__files/all-movies.json"));
+        byte[] smile = new SmileNegotiatingTransformer().toSmile(json);
+
+        //when
+        warmUp(jsonMapper, json);
+        warmUp(smileMapper, smile);
+        double[] jsonRounds = new double[ROUNDS];
+        double[] smileRounds = new double[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            jsonRounds[round] = decodesPerSecond(jsonMapper, json);
+            smileRounds[round] = decodesPerSecond(smileMapper, smile);
+        }
+
+        //then
+        System.out.println(String.format("allMovies : json=%d bytes %.0f decodes/s, smile=%d bytes %.0f decodes/s (median of %d rounds)",
+                json.length, median(jsonRounds), smile.length, median(smileRounds), ROUNDS));
+    }
+
+    private void warmUp(ObjectMapper objectMapper, byte[] payload) throws Exception {
+        for (int i = 0; i < 50_000; i++) {
+            objectMapper.readValue(payload, MOVIE_LIST);
+        }
+    }
+
+    private double decodesPerSecond(ObjectMapper objectMapper, byte[] payload) throws Exception {
+        int iterations = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            objectMapper.readValue(payload, MOVIE_LIST);
+        }
+        return iterations / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double median(double[] rounds) {
+        double[] sorted = rounds.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.PassthroughResponse;
+import br.com.bieniek.learnwiremock.service.impl.MoviesPassthroughClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.GET_ALL_MOVIES_V1;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class MoviesPassthroughClientTest {
+
+    MoviesPassthroughClient moviesPassthroughClient;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        moviesPassthroughClient = new MoviesPassthroughClientImpl(WebClient.create(baseUrl));
+    }
+
+    @Test
+    void retrieveAllMoviesRaw_transferTo() throws Exception {
+        //given
+        byte[] allMovies = Files.readAllBytes(Paths.get("src/test/resources/__files/all-movies.json"));
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(allMovies)));
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        //when
+        PassthroughResponse response = moviesPassthroughClient.retrieveAllMoviesRaw();
+        long written = response.transferTo(Channels.newChannel(target));
+
+        //then
+        assertTrue(response.isSuccessful());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(allMovies.length, written);
+        assertArrayEquals(allMovies, target.toByteArray());
+    }
+
+    @Test
+    void retrieveMovieByIdRaw_body() {
+        //given
+        stubFor(get(urlPathEqualTo("/movieservice/v1/movie/1"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("movie.json")));
+
+        //when
+        PassthroughResponse response = moviesPassthroughClient.retrieveMovieByIdRaw(1);
+        String body = response.getBody()
+                .map(dataBuffer -> {
+                    String chunk = StandardCharsets.UTF_8.decode(dataBuffer.asByteBuffer()).toString();
+                    DataBufferUtils.release(dataBuffer);
+                    return chunk;
+                })
+                .reduce(String::concat)
+                .block();
+
+        //then
+        assertTrue(body.contains("Batman Begins"));
+    }
+
+    @Test
+    void retrieveMovieByIdRaw_notFoundIsReturnedNotThrown() {
+        //given
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.NOT_FOUND.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("404-movieId.json")));
+
+        //when
+        PassthroughResponse response = moviesPassthroughClient.retrieveMovieByIdRaw(100);
+        response.release();
+
+        //then
+        assertFalse(response.isSuccessful());
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getRawStatusCode());
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.bieniek.learnwiremock.service;
+
+import br.com.bieniek.learnwiremock.dto.BulkDeleteOptions;
+import br.com.bieniek.learnwiremock.dto.BulkDeleteResult;
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.scheduling.PriorityRequestScheduler;
+import br.com.bieniek.learnwiremock.scheduling.RequestPriority;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import br.com.bieniek.learnwiremock.service.impl.PrioritizedMoviesRestClient;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class PrioritizedMoviesRestClientTest {
+
+    private static final int DELETE_DELAY_MILLIS = 1000;
+
+    PrioritizedMoviesRestClient moviesRestClient;
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.fixed("prioritized-test", 2));
+        WebClient webClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(baseUrl).build();
+        moviesRestClient = new PrioritizedMoviesRestClient(new MoviesRestClientImpl(webClient), new PriorityRequestScheduler(2));
+
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("movie.json")));
+        stubFor(delete(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                        .withBody("Movie Deleted Successfully")
+                        .withFixedDelay(DELETE_DELAY_MILLIS)));
+    }
+
+    @Test
+    void deleteMoviesById_failingKeyDoesNotFailTheBatch() {
+        //given
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        moviesRestClient = new PrioritizedMoviesRestClient(new MoviesRestClientImpl(WebClient.create(baseUrl)) {
+            @Override
+            public BulkDeleteResult.Outcome deleteMovieById(Integer movieId, BulkDeleteOptions options) {
+                if (movieId == 2) {
+                    throw new IllegalStateException("key failure");
+                }
+                return super.deleteMovieById(movieId, options);
+            }
+        }, new PriorityRequestScheduler(2));
+
+        //when
+        BulkDeleteResult result = moviesRestClient.deleteMoviesById(Arrays.asList(1, 2, 3), BulkDeleteOptions.defaults());
+
+        //then
+        assertEquals(2, result.getDeleted());
+        assertEquals(1, result.getFailed());
+        assertEquals("2", result.getFailures().get(0).getKey());
+        assertEquals("key failure", result.getFailures().get(0).getMessage());
+    }
+
+    @Test
+    void retrieveMovieById_notQueuedBehindBulkDelete() throws Exception {
+        //given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BulkDeleteResult> bulkDelete = executor.submit(() -> RequestPriority.BATCH.call(() ->
+                    moviesRestClient.deleteMoviesById(Arrays.asList(1, 2, 3, 4), BulkDeleteOptions.defaults())));
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (findAll(deleteRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+"))).size() < 2 && System.nanoTime() < end) {
+                Thread.sleep(10);
+            }
+
+            //when
+            long start = System.nanoTime();
+            Movie movie = RequestPriority.INTERACTIVE.call(() -> moviesRestClient.retrieveMovieById(1));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            //then
+            assertEquals("Batman Begins", movie.getName());
+            assertTrue(elapsedMillis < DELETE_DELAY_MILLIS * 3 / 2, "waited " + elapsedMillis + " ms");
+            assertFalse(bulkDelete.isDone());
+            BulkDeleteResult result = bulkDelete.get(10, TimeUnit.SECONDS);
+            assertEquals(4, result.getDeleted());
+            assertTrue(result.isSuccessful());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.bieniek.learnwiremock.service.impl;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.MOVIE_BY_ID_PATH_PARAM_V1;
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.MOVIE_BY_NAME_QUERY_PARAM_V1;
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.MOVIE_BY_YEAR_QUERY_PARAM_V1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MovieRequestTemplatesTest {
+
+    private static final int CALLS = 200_000;
+
+    MovieRequestTemplates requestTemplates = new MovieRequestTemplates(WebClient.create("http://localhost:8088/"));
+
+    @Test
+    void expandsEveryEndpoint() {
+        assertEquals("http://localhost:8088", requestTemplates.baseUrl());
+        assertEquals("http://localhost:8088/movieservice/v1/allMovies", requestTemplates.allMovies().toString());
+        assertEquals("http://localhost:8088/movieservice/v1/movie", requestTemplates.addMovie().toString());
+        assertEquals("http://localhost:8088/movieservice/v1/movie/9", requestTemplates.movieById(9).toString());
+        assertEquals("http://localhost:8088/movieservice/v1/movieYear?year=2012", requestTemplates.movieByYear(2012).toString());
+        assertEquals("http://localhost:8088/movieservice/v1/movieName?movie_name=Toys%20Story%205",
+                requestTemplates.movieByName("Toys Story 5").toString());
+        assertEquals("http://localhost:8088/movieservice/v1/movieName?movie_name=Fast%20%26%20Furious",
+                requestTemplates.movieByName("Fast & Furious").toString());
+    }
+
+    @Test
+    void expandsNullKeysLikeUriComponentsBuilder() {
+        assertEquals("http://localhost:8088" + UriComponentsBuilder.fromUriString(MOVIE_BY_ID_PATH_PARAM_V1)
+                .buildAndExpand((Object) null).toUriString(), requestTemplates.movieById(null).toString());
+        assertEquals("http://localhost:8088" + UriComponentsBuilder.fromUriString(MOVIE_BY_NAME_QUERY_PARAM_V1)
+                .queryParam("movie_name", (Object) null).buildAndExpand().toUriString(), requestTemplates.movieByName(null).toString());
+        assertEquals("http://localhost:8088" + UriComponentsBuilder.fromUriString(MOVIE_BY_YEAR_QUERY_PARAM_V1)
+                .queryParam("year", (Object) null).buildAndExpand().toUriString(), requestTemplates.movieByYear(null).toString());
+    }
+
+    @Test
+    void cachesExpandedUris() {
+        assertSame(requestTemplates.movieById(9), requestTemplates.movieById(9));
+        assertSame(requestTemplates.movieByName("Avengers"), requestTemplates.movieByName("Avengers"));
+    }
+
+    @Test
+    @Tag("load")
+    void allocationBenchmark() {
+        //given
+        Integer[] years = {2005, 2008, 2012, 2015, 2018, 2019};
+        IntConsumer uriComponentsBuilder = i -> UriComponentsBuilder.fromUriString(MOVIE_BY_YEAR_QUERY_PARAM_V1)
+                .queryParam("year", years[i % years.length])
+                .buildAndExpand()
+                .toUriString();
+        IntConsumer precompiled = i -> requestTemplates.movieByYear(years[i % years.length]);
+
+        //when
+        double builderBytesPerCall = allocatedBytesPerCall(uriComponentsBuilder);
+        double precompiledBytesPerCall = allocatedBytesPerCall(precompiled);
+        System.out.println(String.format("allocated bytes per call : UriComponentsBuilder=%.1f, precompiled=%.1f",
+                builderBytesPerCall, precompiledBytesPerCall));
+
+        //then
+        assertTrue(precompiledBytesPerCall < 1, "precompiled templates allocated " + precompiledBytesPerCall + " bytes per call");
+        assertTrue(builderBytesPerCall > 100 * Math.max(precompiledBytesPerCall, 1));
+    }
+
+    private double allocatedBytesPerCall(IntConsumer call) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < CALLS; i++) {
+            call.accept(i);
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            call.accept(i);
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / (double) CALLS;
+    }
+}
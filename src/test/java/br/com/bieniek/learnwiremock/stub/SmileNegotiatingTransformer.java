@@ -0,0 +1,64 @@
+package br.com.bieniek.learnwiremock.stub;
+
+import br.com.bieniek.learnwiremock.constants.MovieWireFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Makes WireMock speak Smile: JSON bodies of the stubs using this transformer are re-encoded as Smile
+ * when the request accepts {@code application/x-jackson-smile}, other requests get the JSON untouched.
+ */
+public class SmileNegotiatingTransformer extends ResponseTransformer {
+
+    public static final String NAME = "smile-negotiation";
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+    @Override
+    public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+        HttpHeader accept = request.header("Accept");
+        if (!accept.isPresent() || !accept.firstValue().contains(MovieWireFormat.APPLICATION_SMILE.toString())
+                || response.getStatus() != 200) {
+            return response;
+        }
+        List<HttpHeader> headers = response.getHeaders().all().stream()
+                .filter(header -> !header.keyEquals("Content-Type") && !header.keyEquals("Content-Length"))
+                .collect(Collectors.toList());
+        headers.add(HttpHeader.httpHeader("Content-Type", MovieWireFormat.APPLICATION_SMILE.toString()));
+        return Response.Builder.like(response).but()
+                .headers(new HttpHeaders(headers))
+                .body(toSmile(response.getBody()))
+                .build();
+    }
+
+    public byte[] toSmile(byte[] json) {
+        try {
+            return smileMapper.writeValueAsBytes(jsonMapper.readTree(json));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+}
@@ -0,0 +1,271 @@
+package br.com.bieniek.learnwiremock.sync;
+
+import br.com.bieniek.learnwiremock.dto.Movie;
+import br.com.bieniek.learnwiremock.exception.DeadlineExceededException;
+import br.com.bieniek.learnwiremock.exception.MovieErrorResponse;
+import br.com.bieniek.learnwiremock.service.MovieChangeListener;
+import br.com.bieniek.learnwiremock.service.impl.MoviesPassthroughClientImpl;
+import br.com.bieniek.learnwiremock.service.impl.MoviesRestClientImpl;
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static br.com.bieniek.learnwiremock.constants.MovieAppConstants.GET_ALL_MOVIES_V1;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WireMockExtension.class)
+public class MovieCatalogSyncTest {
+
+    private static final String NEW_MOVIE = "{\"movie_id\": 11, \"name\": \"Toys Story 4\", \"year\": 2019, "
+            + "\"cast\": \"Tom Hanks, Tim Allen\", \"release_date\": \"2019-06-20\"}";
+
+    MovieCatalogSync movieCatalogSync;
+    List<String> events = new ArrayList<>();
+
+    @InjectServer
+    WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    Options options = wireMockConfig().
+            port(8088)
+            .notifier(new ConsoleNotifier(true));
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        WebClient webClient = WebClient.create(baseUrl);
+        movieCatalogSync = new MovieCatalogSync(new MoviesRestClientImpl(webClient), new MoviesPassthroughClientImpl(webClient), 2, 2);
+        movieCatalogSync.addListener(new MovieChangeListener() {
+            @Override
+            public void onMovieAdded(Movie movie) {
+                events.add("added " + movie.getMovie_id());
+            }
+
+            @Override
+            public void onMovieUpdated(Movie previous, Movie current) {
+                events.add("updated " + current.getMovie_id() + " " + previous.getName() + " -> " + current.getName());
+            }
+
+            @Override
+            public void onMovieDeleted(Movie movie) {
+                events.add("deleted " + movie.getMovie_id());
+            }
+        });
+
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBodyFile("all-movies.json")));
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.NOT_FOUND.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)));
+    }
+
+    @Test
+    void sync_firstRunReconcilesFullCatalog() {
+
+        //when
+        SyncResult syncResult = movieCatalogSync.sync();
+
+        //then
+        assertTrue(syncResult.isReconciled());
+        assertEquals(10, syncResult.getAdded());
+        assertEquals(10, movieCatalogSync.movies().size());
+        assertEquals(10, movieCatalogSync.highWaterMark());
+    }
+
+    @Test
+    void sync_pullsOnlyMoviesAboveHighWaterMark() {
+        //given
+        movieCatalogSync.sync();
+        events.clear();
+        stubFor(get(urlPathEqualTo("/movieservice/v1/movie/11"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(NEW_MOVIE)));
+
+        //when
+        SyncResult syncResult = movieCatalogSync.sync();
+
+        //then
+        assertFalse(syncResult.isReconciled());
+        assertEquals(1, syncResult.getAdded());
+        assertEquals(11, movieCatalogSync.highWaterMark());
+        assertEquals(1, events.size());
+        assertEquals("added 11", events.get(0));
+        verify(exactly(1), getRequestedFor(urlPathEqualTo(GET_ALL_MOVIES_V1)));
+        verify(exactly(3), getRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+")));
+    }
+
+    @Test
+    void pullNewMovies_failedProbeIsRaised() {
+        //given
+        movieCatalogSync.sync();
+        stubFor(get(urlPathEqualTo("/movieservice/v1/movie/11"))
+                .willReturn(aResponse().withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())));
+
+        //when
+        MovieErrorResponse exception = assertThrows(MovieErrorResponse.class, () -> movieCatalogSync.pullNewMovies());
+
+        //then
+        assertEquals("Probe of movie 11 failed with status 503", exception.getMessage());
+        assertEquals(10, movieCatalogSync.highWaterMark());
+    }
+
+    @Test
+    void pullNewMovies_emptyBodyIsAMissingId() {
+        //given
+        movieCatalogSync.sync();
+        stubFor(get(urlPathEqualTo("/movieservice/v1/movie/11"))
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value())));
+
+        //when
+        SyncResult syncResult = movieCatalogSync.pullNewMovies();
+
+        //then
+        assertEquals(0, syncResult.getAdded());
+        assertEquals(10, movieCatalogSync.highWaterMark());
+    }
+
+    @Test
+    void pullNewMovies_hungProbeIsBounded() {
+        //given
+        String baseUrl = String.format("http://localhost:%s/", wireMockServer.port());
+        WebClient webClient = WebClient.create(baseUrl);
+        movieCatalogSync = new MovieCatalogSync(new MoviesRestClientImpl(webClient), new MoviesPassthroughClientImpl(webClient),
+                2, 2, Duration.ofMillis(300));
+        movieCatalogSync.sync();
+        stubFor(get(urlPathEqualTo("/movieservice/v1/movie/11"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(NEW_MOVIE)
+                        .withFixedDelay(3000)));
+
+        //when
+        long start = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> movieCatalogSync.pullNewMovies());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        //then
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + " ms");
+        assertEquals(10, movieCatalogSync.highWaterMark());
+    }
+
+    @Test
+    void schedule_keepsRunningAfterAListenerThrows() throws Exception {
+        //given
+        CountDownLatch listenerFailed = new CountDownLatch(1);
+        movieCatalogSync.addListener(new MovieChangeListener() {
+            @Override
+            public void onMovieAdded(Movie movie) {
+                listenerFailed.countDown();
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        stubAllMovies("[" + NEW_MOVIE + "]");
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+        //when
+        ScheduledFuture<?> scheduledSync = movieCatalogSync.schedule(executor, 10, TimeUnit.MILLISECONDS);
+
+        //then
+        try {
+            assertTrue(listenerFailed.await(5, TimeUnit.SECONDS));
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (findAll(getRequestedFor(urlPathEqualTo("/movieservice/v1/movie/12"))).isEmpty() && System.nanoTime() < end) {
+                Thread.sleep(10);
+            }
+            assertFalse(findAll(getRequestedFor(urlPathEqualTo("/movieservice/v1/movie/12"))).isEmpty());
+            assertFalse(scheduledSync.isDone());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reconcile_unchangedCatalogPublishesNothing() {
+        //given
+        movieCatalogSync.sync();
+        events.clear();
+
+        //when
+        SyncResult syncResult = movieCatalogSync.reconcile();
+
+        //then
+        assertEquals(0, syncResult.getAdded() + syncResult.getUpdated() + syncResult.getDeleted());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void reconcile_detectsDeletedMovies() {
+        //given
+        movieCatalogSync.sync();
+        events.clear();
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody("[" + NEW_MOVIE + "]")));
+
+        //when
+        SyncResult syncResult = movieCatalogSync.reconcile();
+
+        //then
+        assertEquals(1, syncResult.getAdded());
+        assertEquals(10, syncResult.getDeleted());
+        assertEquals(1, movieCatalogSync.movies().size());
+        assertTrue(events.contains("deleted 1"));
+    }
+
+    @Test
+    void reconcile_detectsUpdateWhoseHashCodeCollides() {
+        //given
+        stubAllMovies("[" + NEW_MOVIE.replace("Toys Story 4", "Aa") + "]");
+        movieCatalogSync.reconcile();
+        events.clear();
+        stubAllMovies("[" + NEW_MOVIE.replace("Toys Story 4", "BB") + "]");
+
+        //when
+        SyncResult syncResult = movieCatalogSync.reconcile();
+
+        //then
+        assertEquals(1, syncResult.getUpdated());
+        assertEquals("updated 11 Aa -> BB", events.get(0));
+    }
+
+    private void stubAllMovies(String body) {
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(body)));
+    }
+}